@@ -27,8 +27,9 @@ final class AsynchronousListener<E extends AsyncEvent> extends Listener<E> {
 
 	private final AsynchronousEventConsumer<? super E> asyncEventConsumer;
 
-	AsynchronousListener(Class<E> eventClass, byte priority, AsynchronousEventConsumer<? super E> asyncEventConsumer) {
-		super(eventClass, priority);
+	AsynchronousListener(Class<E> eventClass, byte priority, boolean ignoreCancelled,
+			AsynchronousEventConsumer<? super E> asyncEventConsumer) {
+		super(eventClass, priority, ignoreCancelled);
 		this.asyncEventConsumer = Objects.requireNonNull(asyncEventConsumer, "asyncEventConsumer");
 	}
 
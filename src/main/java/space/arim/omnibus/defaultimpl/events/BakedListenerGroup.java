@@ -19,21 +19,38 @@
 
 package space.arim.omnibus.defaultimpl.events;
 
+import space.arim.omnibus.util.ArraysUtil;
+
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Set;
 
 class BakedListenerGroup {
 
-	private final Set<Class<?>> eventClasses;
-	private final Listener<?>[] listeners;
+	/**
+	 * Value of {@link #detachedAt()} for groups kept and patched by the driver
+	 */
+	static final long ATTACHED = -1L;
+
+	private final Class<?>[] eventClasses;
+	private volatile Listener<?>[] listeners;
+	private volatile CompiledListeners compiledListeners;
+	private final long detachedAt;
+	private volatile boolean evicted;
 
-	BakedListenerGroup(Set<Class<?>> eventClasses, Listener<?>[] listeners) {
-		this.eventClasses = Set.copyOf(eventClasses);
+	BakedListenerGroup(Class<?>[] eventClasses, Listener<?>[] listeners, long detachedAt) {
+		this.eventClasses = eventClasses;
 		this.listeners = listeners;
+		this.detachedAt = detachedAt;
 	}
 
-	Set<Class<?>> eventClasses() {
+	/**
+	 * Gets the event classes in the hierarchy of this group. The returned array
+	 * is shared and must not be modified.
+	 *
+	 * @return the event classes
+	 */
+	Class<?>[] eventClasses() {
 		return eventClasses;
 	}
 
@@ -41,10 +58,111 @@ class BakedListenerGroup {
 		return listeners;
 	}
 
+	/**
+	 * Gets the driver's registration count at the time this group was baked, if it was
+	 * baked without listeners and so left detached. A detached group is never patched,
+	 * and is current only until the next registration.
+	 *
+	 * @return the registration count when detached, or {@link #ATTACHED}
+	 */
+	long detachedAt() {
+		return detachedAt;
+	}
+
+	/**
+	 * Whether this group was evicted by the driver, after which it is no longer
+	 * patched when listeners are registered
+	 *
+	 * @return true if evicted
+	 */
+	boolean isEvicted() {
+		return evicted;
+	}
+
+	/**
+	 * Marks this group evicted. The caller must hold the driver's lock
+	 */
+	void evict() {
+		evicted = true;
+	}
+
+	/**
+	 * Gets the listeners compiled into a single invoker, compiling them if the
+	 * listeners changed since last compiled. All listeners must be synchronous.
+	 *
+	 * @return the compiled listeners
+	 */
+	CompiledListeners compiledListeners() {
+		Listener<?>[] listeners = this.listeners;
+		CompiledListeners compiledListeners = this.compiledListeners;
+		if (compiledListeners == null || !compiledListeners.isCompiledFrom(listeners)) {
+			// Racing threads may both compile, which is harmless
+			this.compiledListeners = compiledListeners = CompiledListeners.compile(listeners);
+		}
+		return compiledListeners;
+	}
+
+	/**
+	 * Excludes listeners which do not listen to the specified concrete event class,
+	 * per {@link Listener#listensTo(Class)}
+	 *
+	 * @param concreteEventClass the concrete event class
+	 * @param sortedListeners the sorted listeners
+	 * @return the sorted listeners to the event class, which may be the same array
+	 */
+	static Listener<?>[] listenersTo(Class<?> concreteEventClass, Listener<?>[] sortedListeners) {
+		for (Listener<?> listener : sortedListeners) {
+			if (!listener.listensTo(concreteEventClass)) {
+				return Arrays.stream(sortedListeners)
+						.filter((l) -> l.listensTo(concreteEventClass)).toArray(Listener<?>[]::new);
+			}
+		}
+		return sortedListeners;
+	}
+
+	/*
+	 * Patching of baked listeners. The caller must hold the driver's lock
+	 */
+
+	void insertListener(Listener<?> listener) {
+		if (!listener.listensTo(eventClasses[0])) {
+			return;
+		}
+		Listener<?>[] listeners = this.listeners;
+		int insertionIndex = -(Listener.binarySearch(listeners, listener) + 1);
+		this.listeners = ArraysUtil.expandAndInsert(listeners, listener, insertionIndex);
+	}
+
+	void removeListener(Listener<?> listener) {
+		Listener<?>[] listeners = this.listeners;
+		int removalIndex = Listener.binarySearch(listeners, listener);
+		if (removalIndex < 0) {
+			// Not present
+			return;
+		}
+		this.listeners = ArraysUtil.contractAndRemove(listeners, removalIndex);
+	}
+
+	void insertListeners(Listener<?>[] sortedListeners) {
+		sortedListeners = listenersTo(eventClasses[0], sortedListeners);
+		if (sortedListeners.length == 0) {
+			return;
+		}
+		this.listeners = SortedListenersMerge.merge(listeners, sortedListeners);
+	}
+
+	void removeListeners(Set<Listener<?>> removals) {
+		Listener<?>[] listeners = this.listeners;
+		Listener<?>[] retained = Arrays.stream(listeners).filter((l) -> !removals.contains(l)).toArray(Listener<?>[]::new);
+		if (retained.length != listeners.length) {
+			this.listeners = retained;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "BakedListenerGroup{" +
-				"eventClasses=" + eventClasses +
+				"eventClasses=" + Arrays.toString(eventClasses) +
 				", listeners=" + Arrays.toString(listeners) +
 				'}';
 	}
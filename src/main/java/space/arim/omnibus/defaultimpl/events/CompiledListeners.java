@@ -0,0 +1,150 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Consumer;
+
+/**
+ * Synchronous listeners compiled into a single method handle, which calls each
+ * event consumer in order of priority. Each call is isolated such that an exception
+ * thrown by one consumer is logged and does not prevent the others from running. <br>
+ * <br>
+ * Annotated listeners which could not be given a generated consumer are bound
+ * directly to their listening method, rather than through
+ * {@link InvokingEventConsumer#accept(space.arim.omnibus.events.Event)}. Listeners
+ * which filter events are guarded by {@link Listener#ignores(Object)}. <br>
+ * <br>
+ * To keep the depth of the method handle tree logarithmic in the amount of listeners,
+ * the chain is built by recursively splitting the listeners in halves.
+ *
+ */
+final class CompiledListeners {
+
+	private static final MethodType EVENT_TYPE = MethodType.methodType(void.class, Object.class);
+	private static final MethodHandle CONSUMER_ACCEPT;
+	private static final MethodHandle LOG_EXCEPTION;
+	private static final MethodHandle LISTENER_IGNORES;
+	private static final MethodHandle CALL_INSTRUMENTED;
+
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			CONSUMER_ACCEPT = lookup.findVirtual(Consumer.class, "accept", EVENT_TYPE);
+			LOG_EXCEPTION = lookup.findStatic(CompiledListeners.class, "logException",
+					MethodType.methodType(void.class, Object.class, Exception.class, Object.class));
+			LISTENER_IGNORES = lookup.findVirtual(Listener.class, "ignores",
+					MethodType.methodType(boolean.class, Object.class));
+			CALL_INSTRUMENTED = lookup.findStatic(CompiledListeners.class, "callInstrumented",
+					MethodType.methodType(void.class, SynchronousListener.class, Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	private final Listener<?>[] source;
+	private final MethodHandle invoker;
+
+	private CompiledListeners(Listener<?>[] source, MethodHandle invoker) {
+		this.source = source;
+		this.invoker = invoker;
+	}
+
+	/**
+	 * Compiles the specified listeners, which must all be synchronous
+	 *
+	 * @param listeners the listeners, in order of priority
+	 * @return the compiled listeners
+	 */
+	static CompiledListeners compile(Listener<?>[] listeners) {
+		return new CompiledListeners(listeners, chain(listeners, 0, listeners.length));
+	}
+
+	/**
+	 * Whether these compiled listeners were compiled from the specified listeners
+	 *
+	 * @param listeners the listeners
+	 * @return true if compiled from the same array of listeners
+	 */
+	boolean isCompiledFrom(Listener<?>[] listeners) {
+		return source == listeners;
+	}
+
+	/**
+	 * Calls all the listeners
+	 *
+	 * @param event the event
+	 */
+	void callListeners(Object event) {
+		try {
+			invoker.invokeExact(event);
+		} catch (Error | RuntimeException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private static MethodHandle chain(Listener<?>[] listeners, int from, int to) {
+		switch (to - from) {
+		case 0:
+			return MethodHandles.empty(EVENT_TYPE);
+		case 1:
+			return isolatedInvoker((SynchronousListener<?>) listeners[from]);
+		default:
+			int middle = (from + to) >>> 1;
+			// The combiner runs first, then the target
+			return MethodHandles.foldArguments(chain(listeners, middle, to), chain(listeners, from, middle));
+		}
+	}
+
+	private static MethodHandle isolatedInvoker(SynchronousListener<?> listener) {
+		Consumer<?> eventConsumer = listener.getEventConsumer();
+		MethodHandle invoker;
+		if (listener.isInstrumented()) {
+			// Exceptions are caught and recorded by the call
+			invoker = CALL_INSTRUMENTED.bindTo(listener);
+		} else {
+			if (eventConsumer instanceof InvokingEventConsumer) {
+				invoker = ((InvokingEventConsumer<?>) eventConsumer).boundMethodHandle().asType(EVENT_TYPE);
+			} else {
+				invoker = CONSUMER_ACCEPT.bindTo(eventConsumer);
+			}
+			invoker = MethodHandles.catchException(invoker, Exception.class, LOG_EXCEPTION.bindTo(eventConsumer));
+		}
+		if (listener.filtersEvents()) {
+			invoker = MethodHandles.guardWithTest(LISTENER_IGNORES.bindTo(listener), MethodHandles.empty(EVENT_TYPE), invoker);
+		}
+		return invoker;
+	}
+
+	private static <E> void callInstrumented(SynchronousListener<E> listener, Object event) {
+		@SuppressWarnings("unchecked")
+		E castedEvent = (E) event;
+		EventFire.callEventConsumer(listener, listener.getEventConsumer(), castedEvent);
+	}
+
+	private static void logException(Object eventConsumer, Exception ex, Object event) {
+		EventFire.logException(eventConsumer, event, ex);
+	}
+
+}
@@ -24,13 +24,25 @@ import space.arim.omnibus.events.Event;
 import space.arim.omnibus.events.EventBus;
 import space.arim.omnibus.events.EventBusDriver;
 import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ParallelAsyncEvent;
 import space.arim.omnibus.events.RegisteredListener;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * The default implementation of {@link EventBus}.
@@ -39,12 +51,109 @@ import java.util.concurrent.ConcurrentMap;
  */
 public final class DefaultEvents implements EventBus {
 
-	private final DefaultEventsDriver driver = new DefaultEventsDriver();
+	private final DefaultEventsDriver driver;
 
 	/**
-	 * Creates an instance.
+	 * Creates an instance with the default options.
 	 */
 	public DefaultEvents() {
+		this(new Builder());
+	}
+
+	private DefaultEvents(Builder builder) {
+		driver = new DefaultEventsDriver(builder.compileListeners, builder.deadEventHandler, builder.countDeadEvents,
+				builder.instrumentListeners);
+	}
+
+	/**
+	 * Creates a builder for an instance with non-default options
+	 *
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builder of {@link DefaultEvents} with non-default options
+	 *
+	 */
+	public static final class Builder {
+
+		private boolean compileListeners;
+		private Consumer<Object> deadEventHandler;
+		private boolean countDeadEvents;
+		private boolean instrumentListeners;
+
+		Builder() {}
+
+		/**
+		 * Sets whether to compile the listeners applicable to each event class into a
+		 * single invoker, which calls each listener in order of priority. Annotated
+		 * listeners are invoked directly through their listening method. <br>
+		 * <br>
+		 * Compilation happens when an event is fired after the applicable listeners
+		 * changed, so this option is best suited to applications whose listeners are
+		 * mostly registered up front. Only events fired through
+		 * {@link EventBus#fireEvent(Event)} are affected. Disabled by default.
+		 *
+		 * @param compileListeners whether to compile listeners
+		 * @return this builder
+		 */
+		public Builder compileListeners(boolean compileListeners) {
+			this.compileListeners = compileListeners;
+			return this;
+		}
+
+		/**
+		 * Sets a handler called with each event fired which has no listeners. This
+		 * includes events fired through {@link EventBus#fireEvent(Class, Supplier)}, which
+		 * are constructed for the handler's sake. None by default.
+		 *
+		 * @param deadEventHandler the dead event handler, or null for none
+		 * @return this builder
+		 */
+		public Builder deadEventHandler(Consumer<Object> deadEventHandler) {
+			this.deadEventHandler = deadEventHandler;
+			return this;
+		}
+
+		/**
+		 * Sets whether to count events fired which have no listeners, as reported by
+		 * {@link EventBusDriver#getDeadEventCount()}. Disabled by default.
+		 *
+		 * @param countDeadEvents whether to count dead events
+		 * @return this builder
+		 */
+		public Builder countDeadEvents(boolean countDeadEvents) {
+			this.countDeadEvents = countDeadEvents;
+			return this;
+		}
+
+		/**
+		 * Sets whether to record metrics of each listener: the amount of calls, the time
+		 * spent in them, and the amount of exceptions thrown. The metrics are available
+		 * through {@link EventBusDriver#getListenerMetrics()}. <br>
+		 * <br>
+		 * Recording is designed to be cheap even when listeners are called concurrently,
+		 * but it reads the clock twice per call. Disabled by default.
+		 *
+		 * @param instrumentListeners whether to record listener metrics
+		 * @return this builder
+		 */
+		public Builder instrumentListeners(boolean instrumentListeners) {
+			this.instrumentListeners = instrumentListeners;
+			return this;
+		}
+
+		/**
+		 * Builds an instance
+		 *
+		 * @return the built instance
+		 */
+		public DefaultEvents build() {
+			return new DefaultEvents(this);
+		}
 	}
 
 	@Override
@@ -63,10 +172,27 @@ public final class DefaultEvents implements EventBus {
 		driver.fireEvent(event);
 	}
 
-	private <E extends AsyncEvent> void fireAsyncEventCommon(E event, CompletableFuture<E> future) {
-		Listener<E>[] toInvoke = driver.getListenersTo(event);
-		EventFire<E> eventFire = new EventFire<>(toInvoke, event, future);
-		eventFire.callAsyncListeners(0);
+	@Override
+	public <E extends Event> void fireEvent(Class<E> eventClass, Supplier<? extends E> eventSupplier) {
+		if (AsyncEvent.class.isAssignableFrom(eventClass)) {
+			throw new IllegalArgumentException("Cannot use #fireEvent with asynchronous capable events");
+		}
+		Objects.requireNonNull(eventSupplier, "eventSupplier");
+		if (!driver.hasListeners(eventClass)) {
+			driver.fireDeadEvent(eventSupplier);
+			return;
+		}
+		driver.fireEvent(eventSupplier.get());
+	}
+
+	@Override
+	public boolean hasListeners(Class<? extends Event> eventClass) {
+		return driver.hasListeners(eventClass);
+	}
+
+	@Override
+	public <E extends Event> void fireEvents(Collection<? extends E> events) {
+		driver.fireEvents(events);
 	}
 
 	@Override
@@ -74,8 +200,23 @@ public final class DefaultEvents implements EventBus {
 		if (event == null) {
 			throw new NullPointerException("event");
 		}
+		Listener<E>[] toInvoke = driver.getListenersTo(event);
+		if (toInvoke.length == 0) {
+			driver.fireDeadEvent(event);
+			return CompletableFuture.completedFuture(event);
+		}
+		if (event instanceof ParallelAsyncEvent) {
+			CompletableFuture<E> future = new CompletableFuture<>();
+			new ParallelEventFire<>(toInvoke, event, future).fireTier(0);
+			return future;
+		}
+		int firstAsyncIndex = EventFire.callLeadingSyncListeners(toInvoke, event);
+		if (firstAsyncIndex == toInvoke.length) {
+			// No asynchronous listeners
+			return CompletableFuture.completedFuture(event);
+		}
 		CompletableFuture<E> future = new CompletableFuture<>();
-		fireAsyncEventCommon(event, future);
+		new EventFire<>(toInvoke, event, future).callAsyncListeners(firstAsyncIndex);
 		return future;
 	}
 
@@ -84,7 +225,19 @@ public final class DefaultEvents implements EventBus {
 		if (event == null) {
 			throw new NullPointerException("event");
 		}
-		fireAsyncEventCommon(event, null);
+		Listener<E>[] toInvoke = driver.getListenersTo(event);
+		if (toInvoke.length == 0) {
+			driver.fireDeadEvent(event);
+			return;
+		}
+		if (event instanceof ParallelAsyncEvent) {
+			new ParallelEventFire<>(toInvoke, event, null).fireTier(0);
+			return;
+		}
+		int firstAsyncIndex = EventFire.callLeadingSyncListeners(toInvoke, event);
+		if (firstAsyncIndex != toInvoke.length) {
+			new EventFire<>(toInvoke, event, null).callAsyncListeners(firstAsyncIndex);
+		}
 	}
 
 	/*
@@ -94,13 +247,42 @@ public final class DefaultEvents implements EventBus {
 	@Override
 	public <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
 			EventConsumer<? super E> eventConsumer) {
-		return driver.registerListener(eventClass, priority, eventConsumer);
+		return registerListener(eventClass, priority, false, eventConsumer);
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			boolean ignoreCancelled, EventConsumer<? super E> eventConsumer) {
+		Listener<E> listener = new SynchronousListener<>(eventClass, priority, ignoreCancelled, eventConsumer);
+		return registerListener(listener);
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter,
+			EventConsumer<? super E> eventConsumer) {
+		Listener<E> listener = new SynchronousListener<>(eventClass, priority, false,
+				Objects.requireNonNull(typeFilter, "typeFilter"), Objects.requireNonNull(eventFilter, "eventFilter"),
+				eventConsumer);
+		return registerListener(listener);
 	}
 
 	@Override
 	public <E extends AsyncEvent> RegisteredListener registerListener(Class<E> eventClass, byte priority,
 			AsynchronousEventConsumer<? super E> asyncEventConsumer) {
-		Listener<E> listener = new AsynchronousListener<>(eventClass, priority, asyncEventConsumer);
+		Listener<E> listener = new AsynchronousListener<>(eventClass, priority, false, asyncEventConsumer);
+		return registerListener(listener);
+	}
+
+	@Override
+	public <E extends AsyncEvent> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			Executor executor, EventConsumer<? super E> eventConsumer) {
+		Listener<E> listener = new ExecutorListener<>(eventClass, priority, false, executor, eventConsumer);
+		return registerListener(listener);
+	}
+
+	private RegisteredListener registerListener(Listener<?> listener) {
+		purgeCollectedListeners();
 		driver.registerListener(listener);
 		return listener;
 	}
@@ -124,22 +306,39 @@ public final class DefaultEvents implements EventBus {
 	 */
 	private final ConcurrentMap<IdentityListenerWrapper, Set<Listener<?>>> annotatedListenerObjects = new ConcurrentHashMap<>();
 
+	/**
+	 * Queue of weakly registered listener objects which were collected
+	 */
+	private final ReferenceQueue<Object> collectedListeners = new ReferenceQueue<>();
+
 	@Override
 	public void registerListeningMethods(Object annotatedListener) {
 		Objects.requireNonNull(annotatedListener, "annotatedListener");
+		purgeCollectedListeners();
 		Set<Listener<?>> transformedListeners = new ListeningMethodScanner(annotatedListener).scanAndTransformAnnotatedMethods();
+		registerTransformedListeners(new IdentityListenerWrapper(annotatedListener), transformedListeners);
+	}
+
+	@Override
+	public void registerWeakListeningMethods(Object annotatedListener) {
+		Objects.requireNonNull(annotatedListener, "annotatedListener");
+		purgeCollectedListeners();
+		var wrapper = IdentityListenerWrapper.weak(annotatedListener, collectedListeners);
+		Set<Listener<?>> transformedListeners = new ListeningMethodScanner(annotatedListener)
+				.scanAndTransformAnnotatedMethodsWeakly(wrapper.weakListener(), this::purgeCollectedListeners);
+		registerTransformedListeners(wrapper, transformedListeners);
+	}
+
+	private void registerTransformedListeners(IdentityListenerWrapper wrapper, Set<Listener<?>> transformedListeners) {
 		if (transformedListeners.isEmpty()) {
 			// No-op
 			return;
 		}
-		var wrapper = new IdentityListenerWrapper(annotatedListener);
 		annotatedListenerObjects.compute(wrapper, (w, previousListeners) -> {
 			if (previousListeners != null) {
 				throw new IllegalStateException("Listener " + wrapper + " is already registered");
 			}
-			for (Listener<?> transformedListener : transformedListeners) {
-				driver.registerListener(transformedListener);
-			}
+			driver.registerListeners(transformedListeners.toArray(Listener<?>[]::new));
 			return transformedListeners;
 		});
 	}
@@ -149,11 +348,66 @@ public final class DefaultEvents implements EventBus {
 		Objects.requireNonNull(annotatedListener, "annotatedListener");
 		var wrapper = new IdentityListenerWrapper(annotatedListener);
 		annotatedListenerObjects.computeIfPresent(wrapper, (w, transformedListeners) -> {
-			for (Listener<?> transformedListener : transformedListeners) {
-				driver.unregisterListener(transformedListener);
-			}
+			driver.unregisterListeners(transformedListeners.toArray(Listener<?>[]::new));
 			return null;
 		});
 	}
 
+	/**
+	 * Unregisters the listeners of weakly registered listener objects which were collected
+	 *
+	 */
+	void purgeCollectedListeners() {
+		Reference<?> reference;
+		while ((reference = collectedListeners.poll()) != null) {
+			IdentityListenerWrapper wrapper = ((IdentityListenerWrapper.ListenerReference) reference).wrapper();
+			// Only the same wrapper is equal, since the listener object was collected
+			Set<Listener<?>> transformedListeners = annotatedListenerObjects.remove(wrapper);
+			if (transformedListeners != null) {
+				driver.unregisterListeners(transformedListeners.toArray(Listener<?>[]::new));
+			}
+		}
+	}
+
+	/*
+	 * Listener batches
+	 */
+
+	@Override
+	public ListenerBatch createListenerBatch() {
+		return new DefaultListenerBatch(this);
+	}
+
+	void registerBatch(Listener<?>[] listeners, Map<IdentityListenerWrapper, Set<Listener<?>>> annotatedListeners) {
+		purgeCollectedListeners();
+		for (IdentityListenerWrapper wrapper : annotatedListeners.keySet()) {
+			if (annotatedListenerObjects.containsKey(wrapper)) {
+				throw new IllegalStateException("Listener " + wrapper + " is already registered");
+			}
+		}
+		// Register before publishing, lest a concurrent unregistration miss the listeners
+		driver.registerListeners(listeners);
+		List<IdentityListenerWrapper> publishedWrappers = new ArrayList<>(annotatedListeners.size());
+		for (Map.Entry<IdentityListenerWrapper, Set<Listener<?>>> annotatedListener : annotatedListeners.entrySet()) {
+			IdentityListenerWrapper wrapper = annotatedListener.getKey();
+			if (annotatedListenerObjects.putIfAbsent(wrapper, annotatedListener.getValue()) != null) {
+				// Roll back, unless already unregistered concurrently
+				for (IdentityListenerWrapper publishedWrapper : publishedWrappers) {
+					annotatedListenerObjects.remove(publishedWrapper, annotatedListeners.get(publishedWrapper));
+				}
+				driver.unregisterListeners(listeners);
+				throw new IllegalStateException("Listener " + wrapper + " is already registered");
+			}
+			publishedWrappers.add(wrapper);
+		}
+	}
+
+	void unregisterBatch(Listener<?>[] listeners, Map<IdentityListenerWrapper, Set<Listener<?>>> annotatedListeners) {
+		for (Map.Entry<IdentityListenerWrapper, Set<Listener<?>>> annotatedListener : annotatedListeners.entrySet()) {
+			// Only remove if not already unregistered and registered anew
+			annotatedListenerObjects.remove(annotatedListener.getKey(), annotatedListener.getValue());
+		}
+		driver.unregisterListeners(listeners);
+	}
+
 }
@@ -21,17 +21,31 @@ package space.arim.omnibus.defaultimpl.events;
 
 import space.arim.omnibus.events.AsyncEvent;
 import space.arim.omnibus.events.EventBusDriver;
+import space.arim.omnibus.events.ListenerMetrics;
 import space.arim.omnibus.events.RegisteredListener;
 import space.arim.omnibus.util.ArraysUtil;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 final class DefaultEventsDriver implements EventBusDriver {
 
@@ -47,51 +61,215 @@ final class DefaultEventsDriver implements EventBusDriver {
 	 */
 	private final ConcurrentMap<Class<?>, BakedListenerGroup> bakedListeners = new ConcurrentHashMap<>();
 
-	/*
-	 * Listener order computation and caching
+	/**
+	 * Lookup of baked listeners used when firing events. Must only be read through
+	 * {@link #lookupListeners(Class)}. <br>
+	 * <br>
+	 * An entry is either an attached group, the same as in {@link #bakedListeners},
+	 * or a detached group baked without listeners. Attached groups are patched in place
+	 * rather than replaced, so they need no invalidation until evicted. Yet entries
+	 * cannot be reliably invalidated: {@code ClassValue#remove} has no effect while
+	 * another thread is computing the entry, which may then install a stale group.
+	 * Hence each group tells whether it is stale, being evicted or, if detached, baked
+	 * before the latest registration, and stale groups are removed when looked up. <br>
+	 * <br>
+	 * Entries are stored on the event classes themselves, and are only cleared by the JVM
+	 * once this lookup is unreachable from them. As listeners may well reference this
+	 * driver, attached groups are referenced weakly; {@link #bakedListeners} keeps them
+	 * as long as they are current. Thus entries do not outlive the driver, nor retain
+	 * event classes otherwise unreachable
 	 */
+	private final ClassValue<LookupEntry> bakedLookup = new ClassValue<>() {
+		@Override
+		protected LookupEntry computeValue(Class<?> eventClass) {
+			return new LookupEntry(bakeListenersFor(eventClass));
+		}
+	};
 
-	@SuppressWarnings("unchecked")
-	private static <E> Listener<E>[] createGenericArray(int size) {
-		return (Listener<E>[]) new Listener<?>[size];
-	}
+	/**
+	 * The baked listeners indexed by each class in their event class hierarchy,
+	 * a map of usually abstract event classes to the baked groups depending on them.
+	 * Used to patch baked groups when listeners are registered and unregistered. <br>
+	 * <br>
+	 * Baked groups left without listeners by unregistration are evicted from here and
+	 * from {@link #bakedListeners}, so that neither holds on to event classes which
+	 * are no longer listened to, such as those of unloaded plugins
+	 */
+	private final Map<Class<?>, List<BakedListenerGroup>> dependentGroups = new HashMap<>();
 
-	private static <E> Listener<E>[] combineListeners(Listener<E>[] existingListeners,
-													  Listener<E>[] appendListeners) {
-		int existingSize = existingListeners.length;
-		if (existingSize == 0) {
-			return appendListeners;
-		}
-		int requiredSize = existingSize + appendListeners.length;
-		Listener<E>[] expanded = createGenericArray(requiredSize);
-		System.arraycopy(existingListeners, 0, expanded, 0, existingSize);
-		System.arraycopy(appendListeners, 0, expanded, existingSize, appendListeners.length);
-		return expanded;
+	/**
+	 * The number of times listeners have been registered, incremented while holding
+	 * the lock. <br>
+	 * <br>
+	 * Groups baked without listeners are left detached: they are kept in neither
+	 * {@link #bakedListeners} nor {@link #dependentGroups}, so that event classes which
+	 * are merely queried or fired without listeners are not retained. A detached group
+	 * is never patched, and is discarded once any listener is registered after it
+	 */
+	private volatile long registrations;
+
+	/**
+	 * Lock held when modifying listeners or baking listeners, which guards
+	 * {@link #dependentGroups} and writes to {@link #eventListeners} and {@link #bakedListeners}
+	 */
+	private final Lock lock = new ReentrantLock();
+
+	/**
+	 * Whether to compile baked listeners into a single invoker when firing events
+	 */
+	private final boolean compileListeners;
+
+	/**
+	 * Called with events fired without any listeners, or null
+	 */
+	private final Consumer<Object> deadEventHandler;
+
+	/**
+	 * Count of events fired without any listeners, or null if not counted
+	 */
+	private final LongAdder deadEventCount;
+
+	/**
+	 * Whether to record metrics of each listener
+	 */
+	private final boolean instrumentListeners;
+
+	DefaultEventsDriver(boolean compileListeners, Consumer<Object> deadEventHandler, boolean countDeadEvents,
+			boolean instrumentListeners) {
+		this.compileListeners = compileListeners;
+		this.deadEventHandler = deadEventHandler;
+		deadEventCount = (countDeadEvents) ? new LongAdder() : null;
+		this.instrumentListeners = instrumentListeners;
 	}
 
-	private <E> BakedListenerGroup computeListenersFor(Class<?> eventClass) {
-		Listener<E>[] listeners = createGenericArray(0);
-		Set<Class<?>> eventClasses = new HierarchyScan(eventClass).scan();
+	/*
+	 * Listener order computation and caching
+	 */
+
+	private BakedListenerGroup computeListenersFor(Class<?> eventClass) {
+		Class<?>[] eventClasses = HierarchyScan.hierarchyOf(eventClass);
 
+		// Each array of listeners is already sorted
+		Listener<?>[][] sortedListeners = new Listener<?>[eventClasses.length][];
+		int sourceCount = 0;
+		int totalLength = 0;
 		for (Class<?> thisEventClass : eventClasses) {
-			@SuppressWarnings("unchecked")
-			Listener<E>[] fromThisEventClass = (Listener<E>[]) eventListeners.get(thisEventClass);
+			Listener<?>[] fromThisEventClass = eventListeners.get(thisEventClass);
 			if (fromThisEventClass == null) {
 				continue;
 			}
-			listeners = combineListeners(listeners, fromThisEventClass);
+			sortedListeners[sourceCount++] = fromThisEventClass;
+			totalLength += fromThisEventClass.length;
+		}
+		Listener<?>[] listeners = BakedListenerGroup.listenersTo(eventClass,
+				SortedListenersMerge.merge(sortedListeners, sourceCount, totalLength));
+		long detachedAt = (listeners.length == 0) ? registrations : BakedListenerGroup.ATTACHED;
+		return new BakedListenerGroup(eventClasses, listeners, detachedAt);
+	}
+
+	private List<BakedListenerGroup> dependentGroupsOf(Class<?> eventClass) {
+		return dependentGroups.getOrDefault(eventClass, List.of());
+	}
+
+	private BakedListenerGroup bakeListenersFor(Class<?> eventClass) {
+		lock.lock();
+		try {
+			// Another thread may have baked the listeners while we waited
+			BakedListenerGroup existingGroup = bakedListeners.get(eventClass);
+			if (existingGroup != null) {
+				return existingGroup;
+			}
+			BakedListenerGroup listenerGroup = computeListenersFor(eventClass);
+			if (listenerGroup.detachedAt() != BakedListenerGroup.ATTACHED) {
+				return listenerGroup;
+			}
+			for (Class<?> hierarchyClass : listenerGroup.eventClasses()) {
+				dependentGroups.computeIfAbsent(hierarchyClass, (c) -> new ArrayList<>()).add(listenerGroup);
+			}
+			bakedListeners.put(eventClass, listenerGroup);
+			return listenerGroup;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Evicts a baked group if it was left without listeners. The caller must hold the lock
+	 *
+	 * @param listenerGroup the baked group
+	 */
+	private void evictIfEmpty(BakedListenerGroup listenerGroup) {
+		if (listenerGroup.listeners().length != 0) {
+			return;
+		}
+		Class<?>[] eventClasses = listenerGroup.eventClasses();
+		Class<?> eventClass = eventClasses[0];
+		if (!bakedListeners.remove(eventClass, listenerGroup)) {
+			// Already evicted
+			return;
+		}
+		for (Class<?> hierarchyClass : eventClasses) {
+			List<BakedListenerGroup> groups = dependentGroups.get(hierarchyClass);
+			if (groups != null && groups.remove(listenerGroup) && groups.isEmpty()) {
+				dependentGroups.remove(hierarchyClass);
+			}
+		}
+		listenerGroup.evict();
+		bakedLookup.remove(eventClass);
+	}
+
+	/**
+	 * Looks up the baked listeners for an event class. <br>
+	 * <br>
+	 * Removing an entry from {@link #bakedLookup} has no effect while another thread
+	 * is computing it, so a group evicted in the meantime may still be installed.
+	 * Such a group is no longer patched, and is replaced by baking the listeners again.
+	 * So is a detached group baked before the latest registration.
+	 *
+	 * @param eventClass the event class
+	 * @return the baked listeners
+	 */
+	private BakedListenerGroup lookupListeners(Class<?> eventClass) {
+		BakedListenerGroup listenerGroup;
+		while (!isCurrent(listenerGroup = bakedLookup.get(eventClass).get())) {
+			bakedLookup.remove(eventClass);
+		}
+		return listenerGroup;
+	}
+
+	private boolean isCurrent(BakedListenerGroup listenerGroup) {
+		if (listenerGroup == null) {
+			// Collected after eviction
+			return false;
+		}
+		long detachedAt = listenerGroup.detachedAt();
+		if (detachedAt == BakedListenerGroup.ATTACHED) {
+			return !listenerGroup.isEvicted();
 		}
-		Arrays.sort(listeners);
-		return new BakedListenerGroup(eventClasses, listeners);
+		return detachedAt == registrations;
 	}
 
-	private void uncacheBaked(Class<?> eventClass) {
-		bakedListeners.values().removeIf((listenerGroup) -> listenerGroup.eventClasses().contains(eventClass));
+	/**
+	 * Entry in {@link #bakedLookup}. References an attached group weakly, and a
+	 * detached group strongly since nothing else keeps it
+	 */
+	private static final class LookupEntry extends WeakReference<BakedListenerGroup> {
+
+		@SuppressWarnings("unused")
+		private final BakedListenerGroup detachedGroup;
+
+		LookupEntry(BakedListenerGroup listenerGroup) {
+			super(listenerGroup);
+			detachedGroup = (listenerGroup.detachedAt() == BakedListenerGroup.ATTACHED) ? null : listenerGroup;
+		}
 	}
 
 	private Listener<?>[] getListenersTo(Class<?> eventClass) {
-		BakedListenerGroup listenerGroup = bakedListeners.computeIfAbsent(eventClass, this::computeListenersFor);
-		return listenerGroup.listeners();
+		return lookupListeners(eventClass).listeners();
+	}
+
+	boolean hasListeners(Class<?> eventClass) {
+		return getListenersTo(eventClass).length != 0;
 	}
 
 	<E> Listener<E>[] getListenersTo(E event) {
@@ -100,40 +278,185 @@ final class DefaultEventsDriver implements EventBusDriver {
 		return casted;
 	}
 
+	/*
+	 * Dead events
+	 */
+
+	/**
+	 * Handles an event fired without any listeners
+	 *
+	 * @param event the event
+	 */
+	void fireDeadEvent(Object event) {
+		if (deadEventCount != null) {
+			deadEventCount.increment();
+		}
+		if (deadEventHandler != null) {
+			EventFire.callEventConsumer(deadEventHandler, event);
+		}
+	}
+
+	/**
+	 * Handles an event which would be fired without any listeners, constructing it
+	 * only if there is a dead event handler
+	 *
+	 * @param eventSupplier the event supplier
+	 */
+	void fireDeadEvent(Supplier<?> eventSupplier) {
+		if (deadEventCount != null) {
+			deadEventCount.increment();
+		}
+		if (deadEventHandler != null) {
+			Object event = Objects.requireNonNull(eventSupplier.get(), "event");
+			EventFire.callEventConsumer(deadEventHandler, event);
+		}
+	}
+
 	/*
 	 * Listener registration
 	 */
 
 	<E> void registerListener(Listener<E> listener) {
 		Class<E> eventClass = listener.getEventClass();
-		eventListeners.compute(eventClass, (c, existingListeners) -> {
-			// No existing listeners
+		lock.lock();
+		try {
+			if (instrumentListeners) {
+				listener.instrument();
+			}
+			listener.resequence();
+			registrations++;
+			Listener<?>[] existingListeners = eventListeners.get(eventClass);
 			if (existingListeners == null) {
-				return new Listener<?>[]{listener};
+				// No existing listeners
+				eventListeners.put(eventClass, new Listener<?>[] {listener});
+			} else {
+				// Add the listener maintaining sorting
+				int insertionIndex = -(Listener.binarySearch(existingListeners, listener) + 1);
+				eventListeners.put(eventClass, ArraysUtil.expandAndInsert(existingListeners, listener, insertionIndex));
 			}
-			// Add the listener maintaining sorting
-			int insertionIndex = -(Arrays.binarySearch(existingListeners, listener) + 1);
-			return ArraysUtil.expandAndInsert(existingListeners, listener, insertionIndex);
-		});
-		uncacheBaked(eventClass);
+			for (BakedListenerGroup listenerGroup : dependentGroupsOf(eventClass)) {
+				listenerGroup.insertListener(listener);
+			}
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	void unregisterListener(Listener<?> listener) {
 		Class<?> eventClass = listener.getEventClass();
-		eventListeners.computeIfPresent(eventClass, (c, existingListeners) -> {
-			int removalIndex = Arrays.binarySearch(existingListeners, listener);
+		lock.lock();
+		try {
+			Listener<?>[] existingListeners = eventListeners.get(eventClass);
+			if (existingListeners == null) {
+				return;
+			}
+			int removalIndex = Listener.binarySearch(existingListeners, listener);
 			if (removalIndex < 0) {
 				// Not present
-				return existingListeners;
+				return;
 			}
-			Listener<?>[] updated = ArraysUtil.contractAndRemove(existingListeners, removalIndex);
-			if (updated.length == 0) {
+			if (existingListeners.length == 1) {
 				// Clean unused mappings
-				return null;
+				eventListeners.remove(eventClass);
+			} else {
+				eventListeners.put(eventClass, ArraysUtil.contractAndRemove(existingListeners, removalIndex));
+			}
+			// Copy since eviction modifies the dependent groups
+			for (BakedListenerGroup listenerGroup : dependentGroupsOf(eventClass).toArray(BakedListenerGroup[]::new)) {
+				listenerGroup.removeListener(listener);
+				evictIfEmpty(listenerGroup);
 			}
-			return updated;
-		});
-		uncacheBaked(eventClass);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Registers many listeners at once. Each affected array of listeners and each
+	 * affected baked group is updated only once, by merging in the new listeners.
+	 *
+	 * @param listeners the listeners to register
+	 */
+	void registerListeners(Listener<?>[] listeners) {
+		lock.lock();
+		try {
+			// Listeners of equal priority are ordered as given
+			for (Listener<?> listener : listeners) {
+				if (instrumentListeners) {
+					listener.instrument();
+				}
+				listener.resequence();
+			}
+			registrations++;
+			Listener<?>[] sortedListeners = listeners.clone();
+			Arrays.sort(sortedListeners);
+			// Partitions of sorted listeners remain sorted
+			Map<Class<?>, List<Listener<?>>> additionsByClass = new HashMap<>();
+			for (Listener<?> listener : sortedListeners) {
+				additionsByClass.computeIfAbsent(listener.getEventClass(), (c) -> new ArrayList<>()).add(listener);
+			}
+			Map<BakedListenerGroup, List<Listener<?>>> additionsByGroup = new IdentityHashMap<>();
+			for (Listener<?> listener : sortedListeners) {
+				for (BakedListenerGroup listenerGroup : dependentGroupsOf(listener.getEventClass())) {
+					additionsByGroup.computeIfAbsent(listenerGroup, (g) -> new ArrayList<>()).add(listener);
+				}
+			}
+			for (Map.Entry<Class<?>, List<Listener<?>>> additions : additionsByClass.entrySet()) {
+				Class<?> eventClass = additions.getKey();
+				Listener<?>[] addedListeners = additions.getValue().toArray(Listener<?>[]::new);
+				Listener<?>[] existingListeners = eventListeners.get(eventClass);
+				eventListeners.put(eventClass, (existingListeners == null) ?
+						addedListeners : SortedListenersMerge.merge(existingListeners, addedListeners));
+			}
+			for (Map.Entry<BakedListenerGroup, List<Listener<?>>> additions : additionsByGroup.entrySet()) {
+				additions.getKey().insertListeners(additions.getValue().toArray(Listener<?>[]::new));
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Unregisters many listeners at once. Each affected array of listeners and each
+	 * affected baked group is updated only once. Listeners not registered are ignored.
+	 *
+	 * @param listeners the listeners to unregister
+	 */
+	void unregisterListeners(Listener<?>[] listeners) {
+		Set<Listener<?>> removals = new HashSet<>(Arrays.asList(listeners));
+		Set<Class<?>> eventClasses = new HashSet<>();
+		for (Listener<?> listener : listeners) {
+			eventClasses.add(listener.getEventClass());
+		}
+		lock.lock();
+		try {
+			Set<BakedListenerGroup> affectedGroups = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (Class<?> eventClass : eventClasses) {
+				Listener<?>[] existingListeners = eventListeners.get(eventClass);
+				if (existingListeners == null) {
+					continue;
+				}
+				Listener<?>[] retainedListeners = Arrays.stream(existingListeners)
+						.filter((l) -> !removals.contains(l)).toArray(Listener<?>[]::new);
+				if (retainedListeners.length == existingListeners.length) {
+					// None present
+					continue;
+				}
+				if (retainedListeners.length == 0) {
+					// Clean unused mappings
+					eventListeners.remove(eventClass);
+				} else {
+					eventListeners.put(eventClass, retainedListeners);
+				}
+				affectedGroups.addAll(dependentGroupsOf(eventClass));
+			}
+			for (BakedListenerGroup listenerGroup : affectedGroups) {
+				listenerGroup.removeListeners(removals);
+				evictIfEmpty(listenerGroup);
+			}
+		} finally {
+			lock.unlock();
+		}
 	}
 
 	/*
@@ -148,13 +471,53 @@ final class DefaultEventsDriver implements EventBusDriver {
 		if (event instanceof AsyncEvent) {
 			throw new IllegalArgumentException("Cannot use #fireEvent with asynchronous capable events");
 		}
-		EventFire.callSyncListeners(getListenersTo(event), event);
+		BakedListenerGroup listenerGroup = lookupListeners(event.getClass());
+		@SuppressWarnings("unchecked")
+		Listener<Object>[] listeners = (Listener<Object>[]) listenerGroup.listeners();
+		if (listeners.length == 0) {
+			fireDeadEvent(event);
+		} else if (compileListeners) {
+			listenerGroup.compiledListeners().callListeners(event);
+		} else {
+			EventFire.callSyncListeners(listeners, event);
+		}
+	}
+
+	@Override
+	public void fireEvents(Collection<?> events) {
+		Object[] eventArray = events.toArray();
+		for (Object event : eventArray) {
+			if (event == null) {
+				throw new NullPointerException("event");
+			}
+			if (event instanceof AsyncEvent) {
+				throw new IllegalArgumentException("Cannot use #fireEvents with asynchronous capable events");
+			}
+		}
+		// Fire runs of events of the same class together
+		int runStart = 0;
+		while (runStart < eventArray.length) {
+			Class<?> eventClass = eventArray[runStart].getClass();
+			int runEnd = runStart + 1;
+			while (runEnd < eventArray.length && eventArray[runEnd].getClass() == eventClass) {
+				runEnd++;
+			}
+			Listener<?>[] listeners = getListenersTo(eventClass);
+			if (listeners.length == 0) {
+				for (int index = runStart; index < runEnd; index++) {
+					fireDeadEvent(eventArray[index]);
+				}
+			} else {
+				EventFire.callSyncListeners(listeners, eventArray, runStart, runEnd);
+			}
+			runStart = runEnd;
+		}
 	}
 
 	@Override
 	public <E> RegisteredListener registerListener(Class<E> eventClass, byte priority,
 												   Consumer<? super E> eventConsumer) {
-		Listener<E> listener = new SynchronousListener<>(eventClass, priority, eventConsumer);
+		Listener<E> listener = new SynchronousListener<>(eventClass, priority, false, eventConsumer);
 		registerListener(listener);
 		return listener;
 	}
@@ -164,6 +527,25 @@ final class DefaultEventsDriver implements EventBusDriver {
 		return getListenersTo(eventClass).length;
 	}
 
+	@Override
+	public List<ListenerMetrics> getListenerMetrics() {
+		if (!instrumentListeners) {
+			return List.of();
+		}
+		List<ListenerMetrics> listenerMetrics = new ArrayList<>();
+		for (Listener<?>[] listeners : eventListeners.values()) {
+			for (Listener<?> listener : listeners) {
+				listenerMetrics.add(listener.instrumentation().snapshot(listener));
+			}
+		}
+		return listenerMetrics;
+	}
+
+	@Override
+	public long getDeadEventCount() {
+		return (deadEventCount == null) ? 0L : deadEventCount.sum();
+	}
+
 	@Override
 	public String debugRegisteredListeners(Class<?> eventClass) {
 		StringBuilder output = new StringBuilder();
@@ -184,6 +566,7 @@ final class DefaultEventsDriver implements EventBusDriver {
 	@Override
 	public void debugEntireDriverState(Appendable output) throws IOException {
 		output.append("Entire state of ").append(this.toString());
+		output.append('\n').append("Dead events: ").append(Long.toString(getDeadEventCount()));
 		EventClassDebug eventClassDebug = new EventClassDebug(output, false, "  ");
 		for (Map.Entry<Class<?>, Listener<?>[]> entry : eventListeners.entrySet()) {
 			Class<?> eventClass = entry.getKey();
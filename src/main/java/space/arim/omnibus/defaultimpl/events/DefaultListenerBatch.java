@@ -0,0 +1,128 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+final class DefaultListenerBatch implements ListenerBatch {
+
+	private final DefaultEvents events;
+	private final List<Listener<?>> listeners = new ArrayList<>();
+	private final Map<IdentityListenerWrapper, Set<Listener<?>>> annotatedListeners = new HashMap<>();
+	private boolean registered;
+
+	DefaultListenerBatch(DefaultEvents events) {
+		this.events = events;
+	}
+
+	private void checkNotRegistered() {
+		if (registered) {
+			throw new IllegalStateException("Batch is registered");
+		}
+	}
+
+	private <E> RegisteredListener addListener(Listener<E> listener) {
+		checkNotRegistered();
+		listeners.add(listener);
+		return listener;
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			EventConsumer<? super E> eventConsumer) {
+		return addListener(eventClass, priority, false, eventConsumer);
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			boolean ignoreCancelled, EventConsumer<? super E> eventConsumer) {
+		return addListener(new SynchronousListener<>(eventClass, priority, ignoreCancelled, eventConsumer));
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter,
+			EventConsumer<? super E> eventConsumer) {
+		return addListener(new SynchronousListener<>(eventClass, priority, false,
+				Objects.requireNonNull(typeFilter, "typeFilter"), Objects.requireNonNull(eventFilter, "eventFilter"),
+				eventConsumer));
+	}
+
+	@Override
+	public <E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			AsynchronousEventConsumer<? super E> asyncEventConsumer) {
+		return addListener(new AsynchronousListener<>(eventClass, priority, false, asyncEventConsumer));
+	}
+
+	@Override
+	public <E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Executor executor, EventConsumer<? super E> eventConsumer) {
+		return addListener(new ExecutorListener<>(eventClass, priority, false, executor, eventConsumer));
+	}
+
+	@Override
+	public void addListeningMethods(Object annotatedListener) {
+		Objects.requireNonNull(annotatedListener, "annotatedListener");
+		checkNotRegistered();
+		Set<Listener<?>> transformedListeners = new ListeningMethodScanner(annotatedListener).scanAndTransformAnnotatedMethods();
+		if (transformedListeners.isEmpty()) {
+			// No-op
+			return;
+		}
+		var wrapper = new IdentityListenerWrapper(annotatedListener);
+		if (annotatedListeners.putIfAbsent(wrapper, transformedListeners) != null) {
+			throw new IllegalStateException("Listener " + wrapper + " is already in this batch");
+		}
+		listeners.addAll(transformedListeners);
+	}
+
+	@Override
+	public void register() {
+		if (registered) {
+			throw new IllegalStateException("Batch is already registered");
+		}
+		events.registerBatch(listeners.toArray(Listener<?>[]::new), annotatedListeners);
+		registered = true;
+	}
+
+	@Override
+	public void unregister() {
+		if (!registered) {
+			return;
+		}
+		events.unregisterBatch(listeners.toArray(Listener<?>[]::new), annotatedListeners);
+		registered = false;
+	}
+
+}
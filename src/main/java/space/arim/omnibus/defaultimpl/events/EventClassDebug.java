@@ -48,9 +48,9 @@ class EventClassDebug {
 	private void appendHierarchy(Class<?> eventClass) throws IOException {
 		output.append('\n').append(indentPrefix).append("  Detected Class Hierarchy");
 		if (verbose) {
-			output.append(" (No particular order)");
+			output.append(" (In scan order)");
 		}
-		for (Class<?> hierarchy : new HierarchyScan(eventClass).scan()) {
+		for (Class<?> hierarchy : HierarchyScan.hierarchyOf(eventClass)) {
 			output.append('\n').append(indentPrefix).append("    - ").append(hierarchy.getName());
 		}
 	}
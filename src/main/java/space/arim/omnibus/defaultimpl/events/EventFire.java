@@ -21,16 +21,25 @@ package space.arim.omnibus.defaultimpl.events;
 
 import space.arim.omnibus.events.AsyncEvent;
 import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.BatchEventConsumer;
+import space.arim.omnibus.events.Event;
 import space.arim.omnibus.events.EventFireController;
 
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 /**
  * Responsible for invoking listeners. During the firing of an async event, an instance
- * holds state relating to the fire.
+ * holds state relating to the fire. An instance is only needed once an asynchronous
+ * listener is reached.
  *
  * @param <E> the async event
  */
@@ -40,18 +49,34 @@ final class EventFire<E extends AsyncEvent> {
 	private final E event;
 	private final CompletableFuture<E> future;
 
+	/**
+	 * The state of the fire, encoding the index of the asynchronous listener last
+	 * called together with its phase: {@link #CALLING}, {@link #AWAITING}, or
+	 * {@link #CONTINUED}
+	 */
 	@SuppressWarnings("unused")
-	private int continuationIndex;
-	private static final VarHandle CONTINUATION_INDEX;
+	private int state;
+	private static final VarHandle STATE;
+
+	/** The listener is being called by the fire loop */
+	private static final int CALLING = 0;
+	/** The listener returned without continuing; its continuation must resume the fire loop */
+	private static final int AWAITING = 1;
+	/** The listener was continued */
+	private static final int CONTINUED = 2;
 
 	static {
 		try {
-			CONTINUATION_INDEX = MethodHandles.lookup().findVarHandle(EventFire.class, "continuationIndex", int.class);
+			STATE = MethodHandles.lookup().findVarHandle(EventFire.class, "state", int.class);
 		} catch (NoSuchFieldException | IllegalAccessException ex) {
 			throw new ExceptionInInitializerError(ex);
 		}
 	}
 
+	private static int state(int listenerIndex, int phase) {
+		return (listenerIndex << 2) | phase;
+	}
+
 	EventFire(Listener<E>[] toInvoke, E event, CompletableFuture<E> future) {
 		this.toInvoke = toInvoke;
 		this.event = event;
@@ -61,11 +86,41 @@ final class EventFire<E extends AsyncEvent> {
 	// Plain listeners
 
 	private static <E> void callSyncListener(SynchronousListener<E> invoke, E event) {
-		Consumer<? super E> eventConsumer = invoke.getEventConsumer();
+		if (invoke.ignores(event)) {
+			return;
+		}
+		callEventConsumer(invoke, invoke.getEventConsumer(), event);
+	}
+
+	/**
+	 * Calls the event consumer of a listener, recording the call if the listener is instrumented
+	 *
+	 * @param listener the listener
+	 * @param eventConsumer the listener's event consumer
+	 * @param event the event
+	 * @param <E> the event type
+	 */
+	static <E> void callEventConsumer(Listener<?> listener, Consumer<? super E> eventConsumer, E event) {
+		if (listener.isInstrumented()) {
+			callInstrumentedEventConsumer(listener, eventConsumer, event);
+		} else {
+			callEventConsumer(eventConsumer, event);
+		}
+	}
+
+	private static <E> void callInstrumentedEventConsumer(Listener<?> listener, Consumer<? super E> eventConsumer, E event) {
+		long startTime = System.nanoTime();
+		boolean succeeded = callEventConsumer(eventConsumer, event);
+		listener.instrumentation().record(System.nanoTime() - startTime, succeeded);
+	}
+
+	static <E> boolean callEventConsumer(Consumer<? super E> eventConsumer, E event) {
 		try {
 			eventConsumer.accept(event);
+			return true;
 		} catch (Exception ex) {
 			logException(eventConsumer, event, ex);
+			return false;
 		}
 	}
 
@@ -75,41 +130,236 @@ final class EventFire<E extends AsyncEvent> {
 		}
 	}
 
+	/**
+	 * Calls synchronous listeners for a range of events of the same class. Each listener
+	 * is called for every event before the next listener is called.
+	 *
+	 * @param toInvoke the listeners
+	 * @param events the events
+	 * @param from the start of the range, inclusive
+	 * @param to the end of the range, exclusive
+	 */
+	static void callSyncListeners(Listener<?>[] toInvoke, Object[] events, int from, int to) {
+		List<Object> batch = null;
+		for (Listener<?> listener : toInvoke) {
+			@SuppressWarnings("unchecked")
+			Consumer<Object> eventConsumer = (Consumer<Object>) ((SynchronousListener<?>) listener).getEventConsumer();
+			if (eventConsumer instanceof BatchEventConsumer) {
+				if (listener.filtersEvents()) {
+					List<Object> filteredBatch = unignoredEvents(listener, events, from, to);
+					if (!filteredBatch.isEmpty()) {
+						callBatchEventConsumer(listener, (BatchEventConsumer<?>) eventConsumer, filteredBatch);
+					}
+					continue;
+				}
+				if (batch == null) {
+					batch = Collections.unmodifiableList(Arrays.asList(events).subList(from, to));
+				}
+				callBatchEventConsumer(listener, (BatchEventConsumer<?>) eventConsumer, batch);
+				continue;
+			}
+			for (int index = from; index < to; index++) {
+				Object event = events[index];
+				if (!listener.ignores(event)) {
+					callEventConsumer(listener, eventConsumer, event);
+				}
+			}
+		}
+	}
+
+	private static List<Object> unignoredEvents(Listener<?> listener, Object[] events, int from, int to) {
+		List<Object> unignored = new ArrayList<>(to - from);
+		for (int index = from; index < to; index++) {
+			Object event = events[index];
+			if (!listener.ignores(event)) {
+				unignored.add(event);
+			}
+		}
+		return Collections.unmodifiableList(unignored);
+	}
+
+	private static <E extends Event> void callBatchEventConsumer(Listener<?> listener,
+			BatchEventConsumer<E> batchEventConsumer, List<?> batch) {
+		@SuppressWarnings("unchecked")
+		List<E> castedBatch = (List<E>) batch;
+		boolean instrumented = listener.isInstrumented();
+		long startTime = (instrumented) ? System.nanoTime() : 0L;
+		boolean succeeded;
+		try {
+			batchEventConsumer.acceptBatch(castedBatch);
+			succeeded = true;
+		} catch (Exception ex) {
+			logException(batchEventConsumer, batch, ex);
+			succeeded = false;
+		}
+		if (instrumented) {
+			listener.instrumentation().record(System.nanoTime() - startTime, succeeded);
+		}
+	}
+
+	/**
+	 * Calls the synchronous listeners preceding the first asynchronous listener. If there
+	 * are no asynchronous listeners, all listeners are called without allocating.
+	 *
+	 * @param toInvoke the listeners
+	 * @param event the event
+	 * @param <E> the event type
+	 * @return the index of the first asynchronous listener, or the amount of listeners if there is none
+	 */
+	static <E> int callLeadingSyncListeners(Listener<E>[] toInvoke, E event) {
+		int index = 0;
+		for (; index < toInvoke.length; index++) {
+			Listener<E> listener = toInvoke[index];
+			if (!(listener instanceof SynchronousListener)) {
+				break;
+			}
+			callSyncListener((SynchronousListener<E>) listener, event);
+		}
+		return index;
+	}
+
 	// Async listeners
 
+	/*
+	 * The fire loop is trampolined. If an asynchronous listener continues the fire
+	 * while it is still being called, the continuation merely marks the listener
+	 * continued, and the loop advances to the next listener once the call returns.
+	 * Only a continuation arriving after the call returned resumes the loop itself.
+	 * Thus the stack depth stays constant no matter how many listeners continue
+	 * synchronously. <br>
+	 * <br>
+	 * Consecutive executor listeners sharing an executor are treated as a single
+	 * asynchronous listener, whose task calls each of them and then continues the fire.
+	 */
+
 	void callAsyncListeners(final int startIndex) {
-		for (int currentIndex = startIndex; currentIndex < toInvoke.length; currentIndex++) {
+		int currentIndex = startIndex;
+		while (currentIndex < toInvoke.length) {
 			Listener<E> listener = toInvoke[currentIndex];
 			if (listener instanceof SynchronousListener) {
 				callSyncListener((SynchronousListener<E>) listener, event);
-
-			} else {
-				AsynchronousListener<? super E> asyncListener = (AsynchronousListener<E>) listener;
-				AsynchronousEventConsumer<? super E> asyncEventConsumer = asyncListener.getEventConsumer();
-				EventFireController controller = new AsyncFireController(currentIndex);
-				CONTINUATION_INDEX.setRelease(this, currentIndex);
+				currentIndex++;
+				continue;
+			}
+			if (listener.ignores(event)) {
+				currentIndex++;
+				continue;
+			}
+			int nextIndex;
+			int calling = state(currentIndex, CALLING);
+			STATE.setRelease(this, calling);
+			if (listener instanceof ExecutorListener) {
+				Executor executor = ((ExecutorListener<E>) listener).executor();
+				nextIndex = coalescedEndIndex(currentIndex, executor);
 				try {
-					asyncEventConsumer.acceptAndContinue(event, controller);
-					return;
-				} catch (Exception ex) {
-					logException(asyncEventConsumer, event, ex);
-					if (continuationIndex != currentIndex) {
-						// Listener called continueFire before throwing
-						return;
-					}
+					executor.execute(new ExecutorTask(currentIndex, nextIndex));
+				} catch (RejectedExecutionException ex) {
+					logException(executor, event, ex);
+					STATE.compareAndSet(this, calling, state(currentIndex, CONTINUED));
+					currentIndex = nextIndex;
+					continue;
+				}
+			} else {
+				nextIndex = currentIndex + 1;
+				if (!callAsyncListener((AsynchronousListener<E>) listener, event, new AsyncFireController(currentIndex))) {
+					// Proceed as if continued, unless the listener already continued
+					STATE.compareAndSet(this, calling, state(currentIndex, CONTINUED));
+					currentIndex = nextIndex;
+					continue;
 				}
 			}
+			if ((int) STATE.getAcquire(this) == calling
+					&& STATE.compareAndSet(this, calling, state(currentIndex, AWAITING))) {
+				// Continuation deferred, and will resume the fire loop
+				return;
+			}
+			// Continued during the call
+			currentIndex = nextIndex;
 		}
 		if (future != null) {
 			future.complete(event);
 		}
 	}
 
-	boolean changeIndex(int listenerIndex, int nextIndex) {
-		// It's OK that the CAS uses a plain set for the exchange
-		// The fail-fast behavior of EventFireController should only be used to detect bugs
-		int witnessValue = (int) CONTINUATION_INDEX.compareAndExchangeAcquire(this, listenerIndex, nextIndex);
-		return witnessValue == listenerIndex;
+	/**
+	 * Calls an asynchronous listener, recording the call if the listener is instrumented
+	 *
+	 * @param listener the listener
+	 * @param event the event
+	 * @param controller the controller passed to the listener
+	 * @param <E> the event type
+	 * @return false if the listener threw an exception, true otherwise
+	 */
+	static <E extends AsyncEvent> boolean callAsyncListener(AsynchronousListener<E> listener, E event,
+			EventFireController controller) {
+		AsynchronousEventConsumer<? super E> asyncEventConsumer = listener.getEventConsumer();
+		boolean instrumented = listener.isInstrumented();
+		long startTime = (instrumented) ? System.nanoTime() : 0L;
+		boolean succeeded;
+		try {
+			asyncEventConsumer.acceptAndContinue(event, controller);
+			succeeded = true;
+		} catch (Exception ex) {
+			logException(asyncEventConsumer, event, ex);
+			succeeded = false;
+		}
+		if (instrumented) {
+			listener.instrumentation().record(System.nanoTime() - startTime, succeeded);
+		}
+		return succeeded;
+	}
+
+	private void continueFire(int listenerIndex, int nextIndex) {
+		int continued = state(listenerIndex, CONTINUED);
+		if (STATE.compareAndSet(this, state(listenerIndex, CALLING), continued)) {
+			// The fire loop will advance once the listener returns
+			return;
+		}
+		if (STATE.compareAndSet(this, state(listenerIndex, AWAITING), continued)) {
+			callAsyncListeners(nextIndex);
+			return;
+		}
+		throw new IllegalStateException("Already fired");
+	}
+
+	/**
+	 * Finds the end of the run of consecutive listeners using the same executor,
+	 * which are coalesced into a single task
+	 *
+	 * @param startIndex the index of the first such listener
+	 * @param executor the executor
+	 * @return the index after the last such listener
+	 */
+	private int coalescedEndIndex(int startIndex, Executor executor) {
+		int endIndex = startIndex + 1;
+		while (endIndex < toInvoke.length
+				&& toInvoke[endIndex] instanceof ExecutorListener
+				&& ((ExecutorListener<E>) toInvoke[endIndex]).executor() == executor) {
+			endIndex++;
+		}
+		return endIndex;
+	}
+
+	private class ExecutorTask implements Runnable {
+
+		private final int startIndex;
+		private final int endIndex;
+
+		ExecutorTask(int startIndex, int endIndex) {
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+		}
+
+		@Override
+		public void run() {
+			for (int index = startIndex; index < endIndex; index++) {
+				ExecutorListener<E> listener = (ExecutorListener<E>) toInvoke[index];
+				if (!listener.ignores(event)) {
+					callEventConsumer(listener, listener.getEventConsumer(), event);
+				}
+			}
+			continueFire(startIndex, endIndex);
+		}
 	}
 
 	private class AsyncFireController implements EventFireController {
@@ -122,17 +372,13 @@ final class EventFire<E extends AsyncEvent> {
 
 		@Override
 		public void continueFire() {
-			int nextIndex = listenerIndex + 1;
-			if (!changeIndex(listenerIndex, nextIndex)) {
-				throw new IllegalStateException("Already fired");
-			}
-			callAsyncListeners(nextIndex);
+			EventFire.this.continueFire(listenerIndex, listenerIndex + 1);
 		}
 	}
 
 	// Exception logging
 
-	private static void logException(Object eventConsumer, Object event, Exception ex) {
+	static void logException(Object eventConsumer, Object event, Exception ex) {
 		LoggerHolder.LOGGER.log(System.Logger.Level.WARNING,
 				"Exception while calling event " + event + " for event consumer " + eventConsumer,
 				ex);
@@ -19,35 +19,65 @@
 
 package space.arim.omnibus.defaultimpl.events;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.function.Consumer;
 
+/**
+ * Scans the hierarchy of an event class. The hierarchy consists of the class itself
+ * and all its superclasses and superinterfaces, excluding {@code Object}. <br>
+ * <br>
+ * The scan order is deterministic: each class is followed by its superinterfaces,
+ * depth first in declaration order, then by its superclass. Shared superinterfaces
+ * appear only once, at the position they are first encountered. <br>
+ * <br>
+ * Because the hierarchy of a class never changes, results are cached per class
+ * using a {@code ClassValue}. The cache does not prevent classes from being unloaded.
+ *
+ */
 class HierarchyScan {
 
+	private static final ClassValue<Class<?>[]> HIERARCHIES = new ClassValue<>() {
+		@Override
+		protected Class<?>[] computeValue(Class<?> type) {
+			return new HierarchyScan(type).scan();
+		}
+	};
+
 	private final Class<?> subject;
 
 	HierarchyScan(Class<?> subject) {
 		this.subject = subject;
 	}
 
-	Set<Class<?>> scan() {
-		Set<Class<?>> classes = new HashSet<>();
+	/**
+	 * Gets the cached hierarchy of the specified class. The returned array
+	 * is shared and must not be modified.
+	 *
+	 * @param subject the class whose hierarchy to retrieve
+	 * @return the hierarchy, in scan order
+	 */
+	static Class<?>[] hierarchyOf(Class<?> subject) {
+		return HIERARCHIES.get(subject);
+	}
+
+	Class<?>[] scan() {
+		Set<Class<?>> classes = new LinkedHashSet<>();
 
 		Class<?> currentClass = subject;
-		while (!currentClass.equals(Object.class)) {
+		while (currentClass != null && !currentClass.equals(Object.class)) {
 			classes.add(currentClass);
-			scanInterfaces(currentClass, classes::add);
+			scanInterfaces(currentClass, classes);
 
 			currentClass = currentClass.getSuperclass();
 		}
-		return Set.copyOf(classes);
+		return classes.toArray(new Class<?>[0]);
 	}
 
-	private void scanInterfaces(Class<?> currentClass, Consumer<Class<?>> action) {
+	private void scanInterfaces(Class<?> currentClass, Set<Class<?>> classes) {
 		for (Class<?> iface : currentClass.getInterfaces()) {
-			action.accept(iface);
-			scanInterfaces(iface, action);
+			if (classes.add(iface)) {
+				scanInterfaces(iface, classes);
+			}
 		}
 	}
 
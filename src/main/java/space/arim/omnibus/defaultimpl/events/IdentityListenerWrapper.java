@@ -18,34 +18,97 @@
  */
 package space.arim.omnibus.defaultimpl.events;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
 /**
  * Identity based wrapper to avoid malicious {@code equals} overrides, while not
- * requiring the locking that would be necessary for {@code IdentityHashMap}
+ * requiring the locking that would be necessary for {@code IdentityHashMap}. <br>
+ * <br>
+ * A wrapper may instead hold its listener weakly. Once the listener is collected,
+ * the wrapper equals only itself, and its {@link ListenerReference} is enqueued.
  * 
  */
 final class IdentityListenerWrapper {
 
 	private final Object annotatedListener;
+	private final ListenerReference weakListener;
+	private final int identityHashCode;
 
 	IdentityListenerWrapper(Object annotatedListener) {
 		assert annotatedListener != null : "caller checks for null";
 		this.annotatedListener = annotatedListener;
+		weakListener = null;
+		identityHashCode = System.identityHashCode(annotatedListener);
+	}
+
+	private IdentityListenerWrapper(Object annotatedListener, ReferenceQueue<Object> queue) {
+		assert annotatedListener != null : "caller checks for null";
+		this.annotatedListener = null;
+		weakListener = new ListenerReference(annotatedListener, queue, this);
+		identityHashCode = System.identityHashCode(annotatedListener);
+	}
+
+	/**
+	 * Creates a wrapper holding the listener weakly
+	 *
+	 * @param annotatedListener the listener
+	 * @param queue the queue with which to register the weak reference
+	 * @return the wrapper
+	 */
+	static IdentityListenerWrapper weak(Object annotatedListener, ReferenceQueue<Object> queue) {
+		return new IdentityListenerWrapper(annotatedListener, queue);
+	}
+
+	/**
+	 * Gets the weak reference to the listener, if the listener is held weakly
+	 *
+	 * @return the weak reference, or null if the listener is held strongly
+	 */
+	ListenerReference weakListener() {
+		return weakListener;
+	}
+
+	private Object annotatedListener() {
+		return (weakListener == null) ? annotatedListener : weakListener.get();
 	}
 
 	@Override
 	public int hashCode() {
-		return 31 + System.identityHashCode(annotatedListener);
+		return 31 + identityHashCode;
 	}
 
 	@Override
 	public boolean equals(Object object) {
-		return this == object || object instanceof IdentityListenerWrapper
-				&& annotatedListener == ((IdentityListenerWrapper) object).annotatedListener;
+		if (this == object) {
+			return true;
+		}
+		if (!(object instanceof IdentityListenerWrapper)) {
+			return false;
+		}
+		Object annotatedListener = annotatedListener();
+		return annotatedListener != null && annotatedListener == ((IdentityListenerWrapper) object).annotatedListener();
 	}
 
 	@Override
 	public String toString() {
-		return annotatedListener.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(annotatedListener));
+		Object annotatedListener = annotatedListener();
+		String className = (annotatedListener == null) ? "(collected)" : annotatedListener.getClass().getName();
+		return className + "@" + Integer.toHexString(identityHashCode);
+	}
+
+	static final class ListenerReference extends WeakReference<Object> {
+
+		private final IdentityListenerWrapper wrapper;
+
+		private ListenerReference(Object annotatedListener, ReferenceQueue<Object> queue, IdentityListenerWrapper wrapper) {
+			super(annotatedListener, queue);
+			this.wrapper = wrapper;
+		}
+
+		IdentityListenerWrapper wrapper() {
+			return wrapper;
+		}
 	}
 
 }
@@ -31,6 +31,10 @@ class InvokingEventConsumer<E extends Event> implements EventConsumer<E> {
 		this.methodHandle = methodHandle.bindTo(listener);
 	}
 
+	MethodHandle boundMethodHandle() {
+		return methodHandle;
+	}
+
 	@Override
 	public void accept(E event) {
 		try {
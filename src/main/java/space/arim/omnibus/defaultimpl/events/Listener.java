@@ -18,19 +18,63 @@
  */
 package space.arim.omnibus.defaultimpl.events;
 
+import space.arim.omnibus.events.Cancellable;
 import space.arim.omnibus.events.RegisteredListener;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
 abstract class Listener<E> implements RegisteredListener, Comparable<Listener<?>> {
 
 	private final Class<E> eventClass;
 	private final byte priority;
-	
-	Listener(Class<E> eventClass, byte priority) {
+	private final boolean ignoreCancelled;
+	private final Predicate<? super E> eventFilter;
+	private final boolean filtersEvents;
+	/**
+	 * The key by which listeners are ordered. Reassigned when the listener is registered,
+	 * and so only accessed while holding the driver's lock
+	 */
+	private long sortKey;
+
+	/**
+	 * The instrumentation of this listener, if the driver instruments listeners.
+	 * Set before the listener is published to event firing threads.
+	 */
+	private ListenerInstrumentation instrumentation;
+
+	/**
+	 * Sequence of registered listeners, used to order listeners of equal priority
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+	private static final int PRIORITY_SHIFT = 56;
+
+	Listener(Class<E> eventClass, byte priority, boolean ignoreCancelled) {
+		this(eventClass, priority, ignoreCancelled, null);
+	}
+
+	Listener(Class<E> eventClass, byte priority, boolean ignoreCancelled, Predicate<? super E> eventFilter) {
 		if (eventClass.isArray() || eventClass.isPrimitive() || eventClass.equals(Object.class)) {
 			throw new IllegalArgumentException("Event class cannot be an array, a primitive, or Object");
 		}
 		this.eventClass = eventClass;
 		this.priority = priority;
+		this.ignoreCancelled = ignoreCancelled;
+		this.eventFilter = eventFilter;
+		filtersEvents = ignoreCancelled || eventFilter != null;
+		// A unique key until registered, so that unregistering beforehand is a no-op
+		resequence();
+	}
+
+	/**
+	 * Assigns this listener the next sort key, ordering it after every listener of the same
+	 * priority registered before it. Must be called by the driver upon registration,
+	 * while holding its lock
+	 *
+	 */
+	final void resequence() {
+		// The signed priority occupies the highest byte, so keys order by priority first
+		sortKey = ((long) priority << PRIORITY_SHIFT) | (SEQUENCE.getAndIncrement() & ((1L << PRIORITY_SHIFT) - 1));
 	}
 
 	Class<E> getEventClass() {
@@ -41,23 +85,125 @@ abstract class Listener<E> implements RegisteredListener, Comparable<Listener<?>
 		return priority;
 	}
 
+	/**
+	 * Whether this listener may skip some events, per {@link #ignores(Object)}. If
+	 * false, {@code ignores} always returns false.
+	 *
+	 * @return whether this listener filters events
+	 */
+	final boolean filtersEvents() {
+		return filtersEvents;
+	}
+
+	/**
+	 * Whether this listener should be skipped for the specified event, because the
+	 * event is cancelled and this listener ignores cancelled events, or because the
+	 * event filter rejects the event
+	 *
+	 * @param event the event
+	 * @return true to skip this listener
+	 */
+	final boolean ignores(Object event) {
+		// Checking a single field first keeps the common case cheap
+		return filtersEvents && filters(event);
+	}
+
+	private boolean filters(Object event) {
+		if (ignoreCancelled && event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
+			return true;
+		}
+		if (eventFilter == null) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		E castedEvent = (E) event;
+		try {
+			return !eventFilter.test(castedEvent);
+		} catch (Exception ex) {
+			EventFire.logException(eventFilter, event, ex);
+			return true;
+		}
+	}
+
+	/**
+	 * Whether this listener should be baked for the specified concrete event class,
+	 * which is always a subclass of this listener's event class. Listeners for which
+	 * this is false are never called for instances of the class.
+	 *
+	 * @param concreteEventClass the concrete event class
+	 * @return true to include this listener in the baked listeners of the class
+	 */
+	boolean listensTo(Class<?> concreteEventClass) {
+		return true;
+	}
+
+	/**
+	 * Instruments this listener, if not already instrumented. Must be called by the
+	 * driver before this listener is published
+	 *
+	 */
+	void instrument() {
+		if (instrumentation == null) {
+			instrumentation = new ListenerInstrumentation();
+		}
+	}
+
+	/**
+	 * Whether this listener is instrumented. Unlike {@link #instrumentation()}, this is
+	 * readily inlined even if instrumentation is never used
+	 *
+	 * @return true if instrumented
+	 */
+	boolean isInstrumented() {
+		return instrumentation != null;
+	}
+
+	ListenerInstrumentation instrumentation() {
+		return instrumentation;
+	}
+
 	abstract Object getEventConsumer();
 
+	/**
+	 * Gets the key by which listeners are ordered. Listeners are ordered by priority,
+	 * then by the order in which they were last registered. Keys are unique per listener.
+	 *
+	 * @return the sort key
+	 */
+	final long sortKey() {
+		return sortKey;
+	}
+
 	@Override
-	public int compareTo(Listener<?> other) {
-		if (other == this) {
-			return 0;
-		}
-		int priorityDiff = priority - other.priority;
-		if (priorityDiff == 0) {
-			// Break ties with random hash codes. Best effort
-			int hashDiff = hashCode() - other.hashCode();
-			if (hashDiff == 0) {
-				return System.identityHashCode(getEventConsumer()) - System.identityHashCode(other.getEventConsumer());
+	public final int compareTo(Listener<?> other) {
+		return Long.compare(sortKey, other.sortKey);
+	}
+
+	/**
+	 * Searches a sorted array of listeners for the specified listener, comparing
+	 * sort keys directly
+	 *
+	 * @param listeners the sorted listeners
+	 * @param listener the listener to search for
+	 * @return the index of the listener, or {@code (-(insertion point) - 1)} as in
+	 * {@link java.util.Arrays#binarySearch(Object[], Object)}
+	 */
+	static int binarySearch(Listener<?>[] listeners, Listener<?> listener) {
+		long key = listener.sortKey;
+		int low = 0;
+		int high = listeners.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = listeners[middle].sortKey;
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				return middle;
 			}
-			return hashDiff;
 		}
-		return priorityDiff;
+		return -(low + 1);
 	}
 
 }
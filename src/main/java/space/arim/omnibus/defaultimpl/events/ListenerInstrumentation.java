@@ -0,0 +1,59 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import space.arim.omnibus.events.ListenerMetrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the metrics of a listener. Striped adders are used so that recording
+ * stays cheap when the listener is called concurrently.
+ *
+ */
+final class ListenerInstrumentation {
+
+	private final LongAdder invocationCount = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+	private final LongAdder exceptionCount = new LongAdder();
+
+	/**
+	 * Records a call of the listener
+	 *
+	 * @param nanos the time taken by the call
+	 * @param succeeded whether the call completed without exception
+	 */
+	void record(long nanos, boolean succeeded) {
+		invocationCount.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		if (!succeeded) {
+			exceptionCount.increment();
+		}
+	}
+
+	ListenerMetrics snapshot(Listener<?> listener) {
+		return new ListenerMetrics(listener, listener.getEventClass(), listener.priority(),
+				invocationCount.sum(), totalNanos.sum(), maxNanos.get(), exceptionCount.sum());
+	}
+
+}
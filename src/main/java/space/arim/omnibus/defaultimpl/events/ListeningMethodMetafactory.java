@@ -0,0 +1,145 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.EventFireController;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Spins implementations of {@link EventConsumer} and {@link AsynchronousEventConsumer}
+ * which call a listening method directly, using {@link LambdaMetafactory}. Such
+ * consumers perform as well as if they had been written as lambdas. <br>
+ * <br>
+ * The consumer class is preferably defined alongside the listener class. This requires
+ * a lookup in the listener class with full privilege access, which is only obtainable
+ * when the listener is in the same module as this library, since {@code privateLookupIn}
+ * drops module access across modules. Otherwise, the consumer class is defined in this
+ * module, provided the listener and event classes are visible to this module's class loader. <br>
+ * <br>
+ * If neither is possible, no factory is produced, and the caller should fall back
+ * to {@link InvokingEventConsumer} or {@link InvokingAsynchronousEventConsumer}.
+ * Notably, this is the case for listeners loaded by a child class loader, such as
+ * a plugin class loader, since each class loader has its own unnamed module.
+ *
+ */
+class ListeningMethodMetafactory {
+
+	private static final Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final Method method;
+	private final MethodHandle methodHandle;
+
+	/**
+	 * Creates from a validated listening method and its unreflected method handle
+	 *
+	 * @param method the listening method
+	 * @param methodHandle the unreflected, unbound method handle
+	 */
+	ListeningMethodMetafactory(Method method, MethodHandle methodHandle) {
+		this.method = method;
+		this.methodHandle = methodHandle;
+	}
+
+	/**
+	 * Spins an event consumer factory. The resulting method handle takes the listener
+	 * and yields an {@code EventConsumer} or {@code AsynchronousEventConsumer}, depending
+	 * on whether the listening method is asynchronous.
+	 *
+	 * @return the consumer factory of type {@code (Object)Object}, or {@code null} if unavailable
+	 */
+	MethodHandle spinConsumerFactory() {
+		Class<?> declaringClass = method.getDeclaringClass();
+		Lookup privateLookup;
+		try {
+			privateLookup = MethodHandles.privateLookupIn(declaringClass, LOOKUP);
+		} catch (IllegalAccessException ex) {
+			// Package not open to us
+			privateLookup = null;
+		}
+		if (privateLookup != null) {
+			MethodHandle consumerFactory = spinConsumerFactory(privateLookup);
+			if (consumerFactory != null) {
+				return consumerFactory;
+			}
+			// The private lookup lacks module access if the listener is in another module
+		}
+		if (!isVisibleToThisModule()) {
+			return null;
+		}
+		return spinConsumerFactory(LOOKUP);
+	}
+
+	private MethodHandle spinConsumerFactory(Lookup lookup) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		MethodType instantiatedType = methodHandle.type().dropParameterTypes(0, 1);
+		CallSite callSite;
+		try {
+			if (method.getParameterCount() == 1) {
+				// EventConsumer#accept(E) requires a bridge for Consumer#accept(Object)
+				callSite = LambdaMetafactory.altMetafactory(lookup, "accept",
+						MethodType.methodType(EventConsumer.class, declaringClass),
+						MethodType.methodType(void.class, Event.class), methodHandle, instantiatedType,
+						LambdaMetafactory.FLAG_BRIDGES, 1, MethodType.methodType(void.class, Object.class));
+			} else {
+				callSite = LambdaMetafactory.metafactory(lookup, "acceptAndContinue",
+						MethodType.methodType(AsynchronousEventConsumer.class, declaringClass),
+						MethodType.methodType(void.class, AsyncEvent.class, EventFireController.class),
+						methodHandle, instantiatedType);
+			}
+		} catch (LambdaConversionException ex) {
+			return null;
+		}
+		return callSite.getTarget().asType(FACTORY_TYPE);
+	}
+
+	private boolean isVisibleToThisModule() {
+		if (!isVisible(method.getDeclaringClass())) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isVisible(parameterType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isVisible(Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, LOOKUP.lookupClass().getClassLoader()) == type;
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+}
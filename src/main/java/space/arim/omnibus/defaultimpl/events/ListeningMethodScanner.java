@@ -19,58 +19,138 @@
 package space.arim.omnibus.defaultimpl.events;
 
 import java.lang.invoke.MethodHandle;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
 import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventConsumer;
 import space.arim.omnibus.events.ListeningMethod;
 
 class ListeningMethodScanner {
 
+	/**
+	 * Validated listening methods per listener class. Validation depends only on the
+	 * class, so each new listener instance need only bind itself as the receiver
+	 */
+	private static final ClassValue<AnnotatedMethod[]> ANNOTATED_METHODS = new ClassValue<>() {
+		@Override
+		protected AnnotatedMethod[] computeValue(Class<?> listenerClass) {
+			return scanAnnotatedMethods(listenerClass);
+		}
+	};
+
 	private final Object listener;
-	private final Class<?> listenerClass;
 
-	private final AccessChecker accessChecker = new AccessChecker();
-	
 	ListeningMethodScanner(Object listener) {
 		this.listener = listener;
-		listenerClass = listener.getClass();
 	}
-	
+
 	Set<Listener<?>> scanAndTransformAnnotatedMethods() {
+		AnnotatedMethod[] annotatedMethods = ANNOTATED_METHODS.get(listener.getClass());
+		Set<Listener<?>> transformedListeners = new HashSet<>(annotatedMethods.length * 2);
+		for (AnnotatedMethod annotatedMethod : annotatedMethods) {
+			transformedListeners.add(annotatedMethod.bindTo(listener));
+		}
+		return transformedListeners;
+	}
+
+	/**
+	 * Scans and transforms annotated methods into listeners which hold the listener
+	 * object weakly
+	 *
+	 * @param weakListener the weak reference to the listener object
+	 * @param onCollected called when a listener finds the listener object collected
+	 * @return the transformed listeners
+	 */
+	Set<Listener<?>> scanAndTransformAnnotatedMethodsWeakly(WeakReference<Object> weakListener, Runnable onCollected) {
+		AnnotatedMethod[] annotatedMethods = ANNOTATED_METHODS.get(listener.getClass());
+		Set<Listener<?>> transformedListeners = new HashSet<>(annotatedMethods.length * 2);
+		for (AnnotatedMethod annotatedMethod : annotatedMethods) {
+			transformedListeners.add(annotatedMethod.bindWeaklyTo(weakListener, onCollected));
+		}
+		return transformedListeners;
+	}
+
+	private static AnnotatedMethod[] scanAnnotatedMethods(Class<?> listenerClass) {
+		AccessChecker accessChecker = new AccessChecker();
 		accessChecker.checkClassAccess(listenerClass);
 
-		Set<Listener<?>> transformedListeners = new HashSet<>();
+		List<AnnotatedMethod> annotatedMethods = new ArrayList<>();
 		for (Method method : listenerClass.getMethods()) {
 			ListeningMethod annotation = method.getAnnotation(ListeningMethod.class);
 			if (annotation == null) {
 				continue;
 			}
-			Listener<?> transformedListener = transformAnnotatedMethod(method, annotation);
-			transformedListeners.add(transformedListener);
+			MethodHandle methodHandle = new ListeningMethodValidator(accessChecker, method).validateAndUnreflect();
+			MethodHandle consumerFactory = new ListeningMethodMetafactory(method, methodHandle).spinConsumerFactory();
+			annotatedMethods.add(new AnnotatedMethod(method, annotation, methodHandle, consumerFactory));
 		}
-		return transformedListeners;
+		return annotatedMethods.toArray(AnnotatedMethod[]::new);
 	}
-	
-	private Listener<?> transformAnnotatedMethod(Method method, ListeningMethod annotation) {
-		MethodHandle methodHandle = new ListeningMethodValidator(accessChecker, method).validateAndUnreflect();
-
-		Class<?>[] parameterTypes = method.getParameterTypes();
-		Class<? extends Event> eventClass = parameterTypes[0].asSubclass(Event.class);
-		byte priority = annotation.priority();
-
-		Listener<?> transformedListener;
-		if (parameterTypes.length == 1) {
-			transformedListener = new SynchronousListener<>(eventClass, priority,
-					new InvokingEventConsumer<>(listener, methodHandle));
-		} else {
+
+	/**
+	 * A validated listening method, not yet bound to a listener instance
+	 *
+	 */
+	private static final class AnnotatedMethod {
+
+		private final Class<? extends Event> eventClass;
+		private final byte priority;
+		private final boolean ignoreCancelled;
+		private final boolean async;
+		private final MethodHandle methodHandle;
+		private final MethodHandle consumerFactory;
+
+		AnnotatedMethod(Method method, ListeningMethod annotation, MethodHandle methodHandle, MethodHandle consumerFactory) {
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			eventClass = parameterTypes[0].asSubclass(Event.class);
+			priority = annotation.priority();
+			ignoreCancelled = annotation.ignoreCancelled();
+			async = parameterTypes.length == 2;
+			this.methodHandle = methodHandle;
+			this.consumerFactory = consumerFactory;
+		}
+
+		Listener<?> bindTo(Object listener) {
+			if (!async) {
+				EventConsumer<Event> eventConsumer = (consumerFactory == null) ?
+						new InvokingEventConsumer<>(listener, methodHandle) : createConsumer(listener);
+				return new SynchronousListener<>(eventClass, priority, ignoreCancelled, eventConsumer);
+			}
 			Class<? extends AsyncEvent> asyncEventClass = eventClass.asSubclass(AsyncEvent.class);
-			transformedListener = new AsynchronousListener<>(asyncEventClass, priority,
-					new InvokingAsynchronousEventConsumer<>(listener, methodHandle));
+			AsynchronousEventConsumer<AsyncEvent> asyncEventConsumer = (consumerFactory == null) ?
+					new InvokingAsynchronousEventConsumer<>(listener, methodHandle) : createConsumer(listener);
+			return new AsynchronousListener<>(asyncEventClass, priority, ignoreCancelled, asyncEventConsumer);
+		}
+
+		Listener<?> bindWeaklyTo(WeakReference<Object> weakListener, Runnable onCollected) {
+			if (!async) {
+				EventConsumer<Event> eventConsumer = new WeakInvokingEventConsumer<>(weakListener, methodHandle, onCollected);
+				return new SynchronousListener<>(eventClass, priority, ignoreCancelled, eventConsumer);
+			}
+			Class<? extends AsyncEvent> asyncEventClass = eventClass.asSubclass(AsyncEvent.class);
+			AsynchronousEventConsumer<AsyncEvent> asyncEventConsumer = new WeakInvokingAsynchronousEventConsumer<>(
+					weakListener, methodHandle, onCollected);
+			return new AsynchronousListener<>(asyncEventClass, priority, ignoreCancelled, asyncEventConsumer);
+		}
+
+		private <C> C createConsumer(Object listener) {
+			try {
+				@SuppressWarnings("unchecked")
+				C consumer = (C) (Object) consumerFactory.invokeExact(listener);
+				return consumer;
+			} catch (Error | RuntimeException ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new RuntimeException(ex);
+			}
 		}
-		return transformedListener;
 	}
-	
+
 }
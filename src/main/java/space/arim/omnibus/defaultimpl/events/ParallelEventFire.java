@@ -0,0 +1,165 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.EventFireController;
+import space.arim.omnibus.events.ParallelAsyncEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fires a {@link ParallelAsyncEvent}, calling the listeners in each priority tier
+ * concurrently. The first listener of each tier is called on the thread starting the
+ * tier, and the rest in the common pool. <br>
+ * <br>
+ * The tier completed last starts the next tier. Since there are at most as many tiers
+ * as priorities, the stack depth is bounded even if every listener completes synchronously.
+ *
+ * @param <E> the event type
+ */
+final class ParallelEventFire<E extends AsyncEvent> {
+
+	private final Listener<E>[] toInvoke;
+	private final E event;
+	private final CompletableFuture<E> future;
+
+	private static final Executor EXECUTOR = ForkJoinPool.commonPool();
+
+	ParallelEventFire(Listener<E>[] toInvoke, E event, CompletableFuture<E> future) {
+		this.toInvoke = toInvoke;
+		this.event = event;
+		this.future = future;
+	}
+
+	void fireTier(int tierStart) {
+		if (tierStart == toInvoke.length) {
+			if (future != null) {
+				future.complete(event);
+			}
+			return;
+		}
+		byte priority = toInvoke[tierStart].priority();
+		int tierEnd = tierStart + 1;
+		while (tierEnd < toInvoke.length && toInvoke[tierEnd].priority() == priority) {
+			tierEnd++;
+		}
+		Tier tier = new Tier(tierEnd, tierEnd - tierStart);
+		for (int index = tierStart + 1; index < tierEnd; index++) {
+			int listenerIndex = index;
+			try {
+				EXECUTOR.execute(() -> callListener(listenerIndex, tier));
+			} catch (RejectedExecutionException ex) {
+				callListener(listenerIndex, tier);
+			}
+		}
+		callListener(tierStart, tier);
+	}
+
+	private void callListener(int index, Tier tier) {
+		Listener<E> listener = toInvoke[index];
+		if (listener.ignores(event)) {
+			tier.arrive();
+
+		} else if (listener instanceof SynchronousListener) {
+			EventFire.callEventConsumer(listener, ((SynchronousListener<E>) listener).getEventConsumer(), event);
+			tier.arrive();
+
+		} else if (listener instanceof ExecutorListener) {
+			ExecutorListener<E> executorListener = (ExecutorListener<E>) listener;
+			try {
+				executorListener.executor().execute(() -> {
+					EventFire.callEventConsumer(executorListener, executorListener.getEventConsumer(), event);
+					tier.arrive();
+				});
+			} catch (RejectedExecutionException ex) {
+				EventFire.logException(executorListener.executor(), event, ex);
+				tier.arrive();
+			}
+		} else {
+			TierController controller = new TierController(tier);
+			if (!EventFire.callAsyncListener((AsynchronousListener<E>) listener, event, controller)) {
+				// Proceed as if continued, unless the listener already continued
+				if (controller.markContinued()) {
+					tier.arrive();
+				}
+			}
+		}
+	}
+
+	private final class Tier {
+
+		private final int tierEnd;
+		private int remaining;
+
+		Tier(int tierEnd, int size) {
+			this.tierEnd = tierEnd;
+			remaining = size;
+		}
+
+		void arrive() {
+			if ((int) REMAINING.getAndAdd(this, -1) == 1) {
+				fireTier(tierEnd);
+			}
+		}
+	}
+
+	private static final class TierController implements EventFireController {
+
+		private final ParallelEventFire<?>.Tier tier;
+		@SuppressWarnings("unused")
+		private boolean continued;
+
+		TierController(ParallelEventFire<?>.Tier tier) {
+			this.tier = tier;
+		}
+
+		boolean markContinued() {
+			return CONTINUED.compareAndSet(this, false, true);
+		}
+
+		@Override
+		public void continueFire() {
+			if (!markContinued()) {
+				throw new IllegalStateException("Already fired");
+			}
+			tier.arrive();
+		}
+	}
+
+	private static final VarHandle REMAINING;
+	private static final VarHandle CONTINUED;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			REMAINING = lookup.findVarHandle(ParallelEventFire.Tier.class, "remaining", int.class);
+			CONTINUED = lookup.findVarHandle(TierController.class, "continued", boolean.class);
+		} catch (NoSuchFieldException | IllegalAccessException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+/**
+ * Merges arrays of listeners, each already sorted, into a single sorted array. <br>
+ * <br>
+ * Uses a binary heap of the source arrays ordered by their next listener, so that
+ * merging {@code n} listeners from {@code k} arrays takes {@code O(n log k)} time.
+ * The output array is allocated once, at its exact size.
+ *
+ */
+final class SortedListenersMerge {
+
+	private final Listener<?>[][] sources;
+	private final int[] positions;
+	private final int[] heap;
+	private int heapSize;
+
+	private SortedListenersMerge(Listener<?>[][] sources, int sourceCount) {
+		this.sources = sources;
+		positions = new int[sourceCount];
+		heap = new int[sourceCount];
+		for (int n = 0; n < sourceCount; n++) {
+			heap[n] = n;
+		}
+		heapSize = sourceCount;
+		for (int n = sourceCount / 2 - 1; n >= 0; n--) {
+			siftDown(n);
+		}
+	}
+
+	/**
+	 * Merges the specified sorted arrays. If there is only a single source array,
+	 * it is returned as is.
+	 *
+	 * @param sources the source arrays, each sorted and nonempty
+	 * @param sourceCount the amount of source arrays, which may be less than the array's length
+	 * @param totalLength the sum of the lengths of the source arrays
+	 * @return the merged array
+	 */
+	static Listener<?>[] merge(Listener<?>[][] sources, int sourceCount, int totalLength) {
+		switch (sourceCount) {
+		case 0:
+			return new Listener<?>[0];
+		case 1:
+			return sources[0];
+		default:
+			return new SortedListenersMerge(sources, sourceCount).mergeAll(totalLength);
+		}
+	}
+
+	/**
+	 * Merges two sorted arrays
+	 *
+	 * @param first the first array, sorted
+	 * @param second the second array, sorted
+	 * @return the merged array
+	 */
+	static Listener<?>[] merge(Listener<?>[] first, Listener<?>[] second) {
+		if (first.length == 0) {
+			return second;
+		}
+		if (second.length == 0) {
+			return first;
+		}
+		return merge(new Listener<?>[][] {first, second}, 2, first.length + second.length);
+	}
+
+	private Listener<?>[] mergeAll(int totalLength) {
+		Listener<?>[] merged = new Listener<?>[totalLength];
+		for (int n = 0; n < totalLength; n++) {
+			int source = heap[0];
+			merged[n] = sources[source][positions[source]++];
+			if (positions[source] == sources[source].length) {
+				// Source exhausted
+				if (--heapSize == 0) {
+					break;
+				}
+				heap[0] = heap[heapSize];
+			}
+			siftDown(0);
+		}
+		return merged;
+	}
+
+	private Listener<?> head(int source) {
+		return sources[source][positions[source]];
+	}
+
+	private void siftDown(int index) {
+		int source = heap[index];
+		Listener<?> head = head(source);
+		int half = heapSize / 2;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < heapSize && head(heap[right]).sortKey() < head(heap[child]).sortKey()) {
+				child = right;
+			}
+			if (head.sortKey() <= head(heap[child]).sortKey()) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = source;
+	}
+
+}
@@ -20,13 +20,22 @@ package space.arim.omnibus.defaultimpl.events;
 
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 final class SynchronousListener<E> extends Listener<E> {
 
+	private final Predicate<Class<? extends E>> typeFilter;
 	private final Consumer<? super E> eventConsumer;
 
-	SynchronousListener(Class<E> eventClass, byte priority, Consumer<? super E> eventConsumer) {
-		super(eventClass, priority);
+	SynchronousListener(Class<E> eventClass, byte priority, boolean ignoreCancelled,
+			Consumer<? super E> eventConsumer) {
+		this(eventClass, priority, ignoreCancelled, null, null, eventConsumer);
+	}
+
+	SynchronousListener(Class<E> eventClass, byte priority, boolean ignoreCancelled,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter, Consumer<? super E> eventConsumer) {
+		super(eventClass, priority, ignoreCancelled, eventFilter);
+		this.typeFilter = typeFilter;
 		this.eventConsumer = Objects.requireNonNull(eventConsumer, "eventConsumer");
 	}
 
@@ -35,6 +44,20 @@ final class SynchronousListener<E> extends Listener<E> {
 		return eventConsumer;
 	}
 
+	@Override
+	boolean listensTo(Class<?> concreteEventClass) {
+		if (typeFilter == null) {
+			return true;
+		}
+		try {
+			return typeFilter.test(concreteEventClass.asSubclass(getEventClass()));
+		} catch (Exception ex) {
+			// Bake the listener anyway, rather than fail the event fire
+			EventFire.logException(typeFilter, concreteEventClass, ex);
+			return true;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return "Event consumer " + eventConsumer + " at priority " + priority();
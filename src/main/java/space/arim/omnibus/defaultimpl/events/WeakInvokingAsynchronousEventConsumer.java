@@ -0,0 +1,75 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.EventFireController;
+
+/**
+ * Asynchronous counterpart of {@link WeakInvokingEventConsumer}. Once the listener is
+ * collected, the fire is continued immediately
+ *
+ */
+final class WeakInvokingAsynchronousEventConsumer<E extends AsyncEvent> implements AsynchronousEventConsumer<E> {
+
+	private final WeakReference<Object> listener;
+	private final MethodHandle methodHandle;
+	private final Runnable onCollected;
+
+	private static final MethodType GENERIC_TYPE = MethodType.methodType(
+			void.class, Object.class, Object.class, EventFireController.class);
+
+	WeakInvokingAsynchronousEventConsumer(WeakReference<Object> listener, MethodHandle methodHandle,
+			Runnable onCollected) {
+		this.listener = listener;
+		this.methodHandle = methodHandle.asType(GENERIC_TYPE);
+		this.onCollected = onCollected;
+	}
+
+	@Override
+	public void acceptAndContinue(E event, EventFireController controller) {
+		Object listener = this.listener.get();
+		if (listener == null) {
+			onCollected.run();
+			controller.continueFire();
+			return;
+		}
+		try {
+			methodHandle.invokeExact(listener, (Object) event, controller);
+
+		} catch (Error | RuntimeException ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "WeakInvokingAsynchronousEventConsumer{" +
+				"methodHandle=" + methodHandle +
+				'}';
+	}
+}
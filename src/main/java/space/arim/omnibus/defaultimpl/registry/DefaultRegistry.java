@@ -20,14 +20,31 @@ package space.arim.omnibus.defaultimpl.registry;
 
 import space.arim.omnibus.events.EventBus;
 import space.arim.omnibus.registry.DuplicateRegistrationException;
+import space.arim.omnibus.registry.ProviderHandle;
 import space.arim.omnibus.registry.Registration;
+import space.arim.omnibus.registry.RegistrationBatch;
 import space.arim.omnibus.registry.Registry;
 import space.arim.omnibus.util.ArraysUtil;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * The default implementation of {@link Registry}
@@ -52,42 +69,142 @@ public class DefaultRegistry implements Registry {
 	private final FifoEventQueue eventQueue = new FifoEventQueue();
 	
 	/**
-	 * Creates from an event bus
+	 * Provider handles by service, held weakly. A handle is created and updated only while
+	 * holding the lock for its service in {@link #registry}. <br>
+	 * <br>
+	 * Handles no longer referenced are collected and their entries purged, so that the
+	 * map does not retain service classes which are neither registered nor looked up
+	 * 
+	 */
+	private final ConcurrentHashMap<Class<?>, ProviderHandleReference> providerHandles = new ConcurrentHashMap<>();
+	
+	/**
+	 * Queue of collected provider handles
+	 * 
+	 */
+	private final ReferenceQueue<ProviderHandleImpl<?>> collectedHandles = new ReferenceQueue<>();
+	
+	/**
+	 * Registrations for services assignable to a type, cached by type. Entries are
+	 * computed while holding their lock in this map, and removed after a service
+	 * changes, so that no stale entry outlives a change. <br>
+	 * <br>
+	 * Empty results are not cached, so that types queried without any registrations are
+	 * not retained. Every other entry is removed once the services it lists are unregistered
+	 * 
+	 */
+	private final ConcurrentHashMap<Class<?>, List<Registration<?>>> assignableRegistrations = new ConcurrentHashMap<>();
+	
+	/**
+	 * Lock guarding changes to registrations. Individual changes hold the read lock,
+	 * since they are already serialised per service by {@link #registry}. Batches hold
+	 * the write lock, so that they are validated and applied without interference
+	 * 
+	 */
+	private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+	
+	/**
+	 * The executor on which registry events are delivered, or {@code null} if they are
+	 * delivered on the thread making the change
+	 * 
+	 */
+	private final Executor eventExecutor;
+	
+	/**
+	 * Creates from an event bus. Registry events are delivered on the thread
+	 * registering or unregistering.
 	 * 
 	 * @param eventBus the event bus
 	 */
 	public DefaultRegistry(EventBus eventBus) {
 		this.eventBus = eventBus;
+		eventExecutor = null;
+	}
+	
+	/**
+	 * Creates from an event bus and an executor on which to deliver registry events.
+	 * Registrations and unregistrations return without waiting for their events to
+	 * be delivered; use {@link #whenEventsDelivered()} to await delivery. <br>
+	 * <br>
+	 * Events are delivered one at a time and in order, even if the executor is not
+	 * itself serial. This includes the {@link space.arim.omnibus.registry.RegistrationAddEvent},
+	 * which may thus be delivered after the registration takes effect.
+	 * 
+	 * @param eventBus the event bus
+	 * @param eventExecutor the executor used to deliver registry events
+	 */
+	public DefaultRegistry(EventBus eventBus, Executor eventExecutor) {
+		this.eventBus = eventBus;
+		this.eventExecutor = Objects.requireNonNull(eventExecutor, "eventExecutor");
 	}
 	
 	private void fireRegistryEvents() {
-		eventQueue.fireEvents(eventBus);
+		if (eventExecutor == null) {
+			eventQueue.fireEvents(eventBus);
+		} else {
+			eventQueue.fireEvents(eventBus, eventExecutor);
+		}
+	}
+	
+	/**
+	 * Offers a service change event and updates the provider handle, if there is one.
+	 * Must be called while holding the lock for the service in {@link #registry}
+	 * 
+	 * @param <T> the service type
+	 * @param service the service class
+	 * @param previous the previous highest priority registration, may be null
+	 * @param updated the updated highest priority registration, may be null
+	 */
+	private <T> void offerServiceChange(Class<T> service, Registration<T> previous, Registration<T> updated) {
+		eventQueue.offer(new ServiceChangeEventImpl<>(service, previous, updated));
+		ProviderHandleImpl<T> providerHandle = getExistingProviderHandle(service);
+		if (providerHandle != null) {
+			providerHandle.set((updated == null) ? null : updated.getProvider());
+		}
+	}
+	
+	private <T> void fireRegistrationAddEvent(Class<T> service, Registration<T> registration) {
+		var addEvent = new RegistrationAddEventImpl<>(service, registration);
+		if (eventExecutor == null) {
+			eventBus.fireAsyncEventWithoutFuture(addEvent);
+		} else {
+			eventQueue.offer(addEvent);
+		}
 	}
 	
 	@SuppressWarnings("unchecked")
 	private <T> Registration<T>[] addRegistration(Class<T> service, Registration<T> registration, T provider) {
-		eventBus.fireAsyncEventWithoutFuture(new RegistrationAddEventImpl<>(service, registration));
-
-		Registration<?>[] result = registry.compute(service, (s, registers) -> {
-			if (registers == null) {
-				// no existing registrations
-				eventQueue.offer(new ServiceChangeEventImpl<>(service, null, registration));
-				return new Registration<?>[] {registration};
-			}
-			for (Registration<?> existing : registers) {
-				if (existing.getProvider() == provider) {
-					throw new DuplicateRegistrationException(
-							"Provider " + provider + " already registered for service " + service);
+		purgeCollectedHandles();
+		fireRegistrationAddEvent(service, registration);
+		Registration<?>[] result;
+		Lock readLock = changeLock.readLock();
+		readLock.lock();
+		try {
+			result = registry.compute(service, (s, registers) -> {
+				if (registers == null) {
+					// no existing registrations
+					offerServiceChange(service, null, registration);
+					return new Registration<?>[] {registration};
 				}
-			}
-			int insertionIndex = - (Arrays.binarySearch(registers, registration) + 1);
-			if (registers.length == insertionIndex) {
-				Registration<T> previous = (Registration<T>) registers[registers.length - 1];
-				eventQueue.offer(new ServiceChangeEventImpl<>(service, previous, registration));
-			}
-			return ArraysUtil.expandAndInsert(registers, registration, insertionIndex);
-		});
-		fireRegistryEvents();
+				for (Registration<?> existing : registers) {
+					if (existing.getProvider() == provider) {
+						throw new DuplicateRegistrationException(
+								"Provider " + provider + " already registered for service " + service);
+					}
+				}
+				int insertionIndex = - (Arrays.binarySearch(registers, registration) + 1);
+				if (registers.length == insertionIndex) {
+					Registration<T> previous = (Registration<T>) registers[registers.length - 1];
+					offerServiceChange(service, previous, registration);
+				}
+				return ArraysUtil.expandAndInsert(registers, registration, insertionIndex);
+			});
+			invalidateAssignableRegistrations(service);
+		} finally {
+			readLock.unlock();
+			// Even if the registration failed, the add event may need delivery
+			fireRegistryEvents();
+		}
 		return (Registration<T>[]) result;
 	}
 	
@@ -123,6 +240,55 @@ public class DefaultRegistry implements Registry {
 		return Optional.of(registrations[registrations.length - 1].getProvider());
 	}
 	
+	@Override
+	public <T> ProviderHandle<T> getProviderHandle(Class<T> service) {
+		ProviderHandleImpl<T> providerHandle = getExistingProviderHandle(service);
+		if (providerHandle != null) {
+			return providerHandle;
+		}
+		purgeCollectedHandles();
+		List<ProviderHandleImpl<T>> createdHandle = new ArrayList<>(1);
+		// Lock the service so that no registration changes it while the handle is created
+		registry.compute(service, (s, registers) -> {
+			ProviderHandleImpl<T> existingHandle = getExistingProviderHandle(service);
+			if (existingHandle != null) {
+				createdHandle.add(existingHandle);
+				return registers;
+			}
+			T provider = (registers == null) ? null : service.cast(registers[registers.length - 1].getProvider());
+			ProviderHandleImpl<T> handle = new ProviderHandleImpl<>(service, provider);
+			providerHandles.put(service, new ProviderHandleReference(handle, collectedHandles));
+			createdHandle.add(handle);
+			return registers;
+		});
+		return createdHandle.get(0);
+	}
+	
+	private <T> ProviderHandleImpl<T> getExistingProviderHandle(Class<T> service) {
+		ProviderHandleReference reference = providerHandles.get(service);
+		@SuppressWarnings("unchecked")
+		ProviderHandleImpl<T> providerHandle = (reference == null) ? null : (ProviderHandleImpl<T>) reference.get();
+		return providerHandle;
+	}
+	
+	private void purgeCollectedHandles() {
+		Reference<?> reference;
+		while ((reference = collectedHandles.poll()) != null) {
+			// Only remove if not already replaced by a new handle
+			providerHandles.remove(((ProviderHandleReference) reference).service, reference);
+		}
+	}
+	
+	private static final class ProviderHandleReference extends WeakReference<ProviderHandleImpl<?>> {
+		
+		final Class<?> service;
+		
+		ProviderHandleReference(ProviderHandleImpl<?> handle, ReferenceQueue<ProviderHandleImpl<?>> queue) {
+			super(handle, queue);
+			service = handle.getService();
+		}
+	}
+	
 	@Override
 	public <T> Optional<Registration<T>> getRegistration(Class<T> service) {
 		Registration<T>[] registrations = getRegistered(service);
@@ -143,27 +309,93 @@ public class DefaultRegistry implements Registry {
 		return registry.containsKey(service);
 	}
 	
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	@Override
-	public <T> Optional<Registration<T>> unregister(Class<T> service, Registration<T> registration) {
-		@SuppressWarnings("unchecked")
-		Registration<T>[] result = (Registration<T>[]) registry.computeIfPresent(service, (s, registers) -> {
-			int locationIndex = Arrays.binarySearch(registers, registration);
-			if (locationIndex < 0) {
-				// silently ignore
-				return registers;
+	public <T> List<Registration<? extends T>> getAllAssignableRegistrations(Class<T> type) {
+		List<Registration<?>> registrations = assignableRegistrations.get(type);
+		if (registrations == null) {
+			registrations = assignableRegistrations.computeIfAbsent(type, this::scanAssignableRegistrations);
+			if (registrations == null) {
+				return List.of();
 			}
-			eventQueue.offer(new RegistrationRemoveEventImpl<>(service, registration));
-			if (registers.length == 1) {
-				eventQueue.offer(new ServiceChangeEventImpl<>(service, registration, null));
-				return null;
+		}
+		return (List) registrations;
+	}
+	
+	/**
+	 * Finds registrations for services assignable to a type
+	 * 
+	 * @param type the type
+	 * @return the sorted registrations, or null if there are none, so as not to be cached
+	 */
+	private List<Registration<?>> scanAssignableRegistrations(Class<?> type) {
+		List<Registration<?>> registrations = new ArrayList<>();
+		for (Map.Entry<Class<?>, Registration<?>[]> entry : registry.entrySet()) {
+			if (type.isAssignableFrom(entry.getKey())) {
+				registrations.addAll(Arrays.asList(entry.getValue()));
 			}
+		}
+		if (registrations.isEmpty()) {
+			return null;
+		}
+		registrations.sort(Comparator.comparingInt(Registration::getPriority));
+		return List.copyOf(registrations);
+	}
+	
+	/**
+	 * Removes cached assignable registrations for every type to which the service is
+	 * assignable. Must be called after the change to the service is visible
+	 * 
+	 * @param service the service class
+	 */
+	private void invalidateAssignableRegistrations(Class<?> service) {
+		invalidateAssignableRegistrations(service, new HashSet<>());
+		// Interfaces do not extend Object, to which every service is assignable
+		assignableRegistrations.remove(Object.class);
+	}
+	
+	private void invalidateAssignableRegistrations(Class<?> type, Set<Class<?>> visited) {
+		if (type == null || !visited.add(type)) {
+			return;
+		}
+		assignableRegistrations.remove(type);
+		invalidateAssignableRegistrations(type.getSuperclass(), visited);
+		for (Class<?> iface : type.getInterfaces()) {
+			invalidateAssignableRegistrations(iface, visited);
+		}
+	}
+	
+	@Override
+	public <T> Optional<Registration<T>> unregister(Class<T> service, Registration<T> registration) {
+		purgeCollectedHandles();
+		Registration<T>[] result;
+		Lock readLock = changeLock.readLock();
+		readLock.lock();
+		try {
 			@SuppressWarnings("unchecked")
-			Registration<T>[] updated = (Registration<T>[]) ArraysUtil.contractAndRemove(registers, locationIndex);
-			if (locationIndex == registers.length - 1) {
-				eventQueue.offer(new ServiceChangeEventImpl<>(service, registration, updated[updated.length - 1]));
-			}
-			return updated;
-		});
+			Registration<T>[] updatedRegistrations = (Registration<T>[]) registry.computeIfPresent(service, (s, registers) -> {
+				int locationIndex = Arrays.binarySearch(registers, registration);
+				if (locationIndex < 0) {
+					// silently ignore
+					return registers;
+				}
+				eventQueue.offer(new RegistrationRemoveEventImpl<>(service, registration));
+				if (registers.length == 1) {
+					offerServiceChange(service, registration, null);
+					return null;
+				}
+				@SuppressWarnings("unchecked")
+				Registration<T>[] updated = (Registration<T>[]) ArraysUtil.contractAndRemove(registers, locationIndex);
+				if (locationIndex == registers.length - 1) {
+					offerServiceChange(service, registration, updated[updated.length - 1]);
+				}
+				return updated;
+			});
+			result = updatedRegistrations;
+			invalidateAssignableRegistrations(service);
+		} finally {
+			readLock.unlock();
+		}
 		fireRegistryEvents();
 		if (result == null) {
 			return Optional.empty();
@@ -171,4 +403,120 @@ public class DefaultRegistry implements Registry {
 		return Optional.of(result[result.length - 1]);
 	}
 	
+	/**
+	 * {@inheritDoc} <br>
+	 * <br>
+	 * Batches from this registry are applied atomically. If any registration would be
+	 * a duplicate, no changes to any service are applied.
+	 * 
+	 */
+	@Override
+	public RegistrationBatch createRegistrationBatch() {
+		return new RegistrationBatchImpl(this);
+	}
+	
+	void applyBatch(Map<Class<?>, List<RegistrationBatchImpl.Change<?>>> changes) {
+		purgeCollectedHandles();
+		Lock writeLock = changeLock.writeLock();
+		writeLock.lock();
+		try {
+			// Validate every service before applying changes to any
+			for (Map.Entry<Class<?>, List<RegistrationBatchImpl.Change<?>>> entry : changes.entrySet()) {
+				applyChanges(entry.getKey(), registry.get(entry.getKey()), entry.getValue(), new ArrayList<>());
+			}
+			for (Map.Entry<Class<?>, List<RegistrationBatchImpl.Change<?>>> entry : changes.entrySet()) {
+				Class<?> service = entry.getKey();
+				List<RegistrationBatchImpl.Change<?>> serviceChanges = entry.getValue();
+				registry.compute(service, (s, registers) -> {
+					List<Registration<?>> removed = new ArrayList<>();
+					Registration<?>[] updated = applyChanges(service, registers, serviceChanges, removed);
+					offerChangeEvents(service, registers, updated, serviceChanges, removed);
+					return updated;
+				});
+				invalidateAssignableRegistrations(service);
+			}
+		} finally {
+			writeLock.unlock();
+			fireRegistryEvents();
+		}
+	}
+	
+	/**
+	 * Computes the registrations of a service after applying batched changes
+	 * 
+	 * @param service the service class
+	 * @param registers the existing registrations, or null if there are none
+	 * @param changes the changes to the service
+	 * @param removed to which to add each registration removed
+	 * @return the updated registrations, or null if there are none
+	 * @throws DuplicateRegistrationException if a provider would be registered twice
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <T> Registration<?>[] applyChanges(Class<T> service, Registration<?>[] registers,
+			List<RegistrationBatchImpl.Change<?>> batchedChanges, List<Registration<?>> removed) {
+		List<RegistrationBatchImpl.Change<T>> changes = (List) batchedChanges;
+		List<Registration<T>> updated = new ArrayList<>();
+		if (registers != null) {
+			updated.addAll((List) Arrays.asList(registers));
+		}
+		for (RegistrationBatchImpl.Change<T> change : changes) {
+			Registration<T> registration = change.registration();
+			if (!change.isRegistration()) {
+				if (updated.remove(registration)) {
+					removed.add(registration);
+				}
+				continue;
+			}
+			for (Registration<T> existing : updated) {
+				if (existing.getProvider() == registration.getProvider()) {
+					throw new DuplicateRegistrationException(
+							"Provider " + registration.getProvider() + " already registered for service " + service);
+				}
+			}
+			updated.add(registration);
+		}
+		Collections.sort(updated);
+		return (updated.isEmpty()) ? null : updated.toArray(Registration<?>[]::new);
+	}
+	
+	/**
+	 * Offers the events for batched changes to a service which were applied. A registration
+	 * add event is offered for each registration, followed by a registration remove event for
+	 * each registration removed, and then a single service change event if the highest priority
+	 * registration differs from that before the batch.
+	 * 
+	 * @param <T> the service type
+	 * @param service the service class
+	 * @param registers the previous registrations, or null if there were none
+	 * @param updated the updated registrations, or null if there are none
+	 * @param batchedChanges the changes to the service
+	 * @param removed the registrations removed
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private <T> void offerChangeEvents(Class<T> service, Registration<?>[] registers, Registration<?>[] updated,
+			List<RegistrationBatchImpl.Change<?>> batchedChanges, List<Registration<?>> removed) {
+		List<RegistrationBatchImpl.Change<T>> changes = (List) batchedChanges;
+		for (RegistrationBatchImpl.Change<T> change : changes) {
+			if (change.isRegistration()) {
+				eventQueue.offer(new RegistrationAddEventImpl<>(service, change.registration()));
+			}
+		}
+		for (Registration<?> registration : removed) {
+			eventQueue.offer(new RegistrationRemoveEventImpl<>(service, (Registration<T>) registration));
+		}
+		Registration<T> previous = (registers == null) ? null : (Registration<T>) registers[registers.length - 1];
+		Registration<T> current = (updated == null) ? null : (Registration<T>) updated[updated.length - 1];
+		if (previous != current) {
+			offerServiceChange(service, previous, current);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Void> whenEventsDelivered() {
+		CompletableFuture<Void> deliveryFuture = new CompletableFuture<>();
+		eventQueue.offerDeliveryFuture(deliveryFuture);
+		fireRegistryEvents();
+		return deliveryFuture;
+	}
+	
 }
\ No newline at end of file
@@ -25,7 +25,10 @@ import space.arim.omnibus.registry.RegistryEvent;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Event queue which allows implementing deadlock-free, sequentially-consistent,
@@ -36,26 +39,33 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  *   user code takes locks while listening to such events.
  * 3. Events will be fired one at a time, such that the next event will only be
  *   fired once the previous event has finished firing.
+ * <br>
+ * The queue may also hold delivery futures, each of which is completed once all
+ * events offered before it have been fired.
  *
  */
 class FifoEventQueue {
 
-	private final Queue<RegistryEvent<?>> queue = new ConcurrentLinkedQueue<>();
 	/**
-	 * Maintains a soft spin-lock with three states. Can be NOTHING, TRANSPOSING, or FIRING. <br>
+	 * Contains registry events and delivery futures
+	 */
+	private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+	/**
+	 * The amount of requests to fire events which have not yet been served. Whichever
+	 * thread increments this from zero becomes the drainer, and fires events until
+	 * it has accounted for every request made in the meantime. <br>
 	 * <br>
-	 * Only 1 thread holds the lock at any time. Others may observe the state.
+	 * A thread which finds another thread draining merely leaves its request behind.
+	 * The drainer is then guaranteed to poll the queue again, and thus fire the
+	 * events offered before the request, so that no thread ever waits for another.
 	 */
-	private volatile int queueState;
-	private static final VarHandle QUEUE_STATE;
-
-	private static final int UNHELD = 0;
-	private static final int TRANSPOSING = 1;
-	private static final int FIRING = 2;
+	@SuppressWarnings("unused")
+	private int pendingRequests;
+	private static final VarHandle PENDING_REQUESTS;
 
 	static {
 		try {
-			QUEUE_STATE = MethodHandles.lookup().findVarHandle(FifoEventQueue.class, "queueState", int.class);
+			PENDING_REQUESTS = MethodHandles.lookup().findVarHandle(FifoEventQueue.class, "pendingRequests", int.class);
 		} catch (NoSuchFieldException | IllegalAccessException ex) {
 			throw new ExceptionInInitializerError(ex);
 		}
@@ -65,38 +75,75 @@ class FifoEventQueue {
 		queue.offer(event);
 	}
 
-	void fireEvents(EventBus eventBus) {
-		spinLoop:
-		while (true) {
-			int witnessValue = (int) QUEUE_STATE.compareAndExchange(this, UNHELD, TRANSPOSING);
-			switch (witnessValue) {
-			case UNHELD:
-				// Successful CAS. We now own the lock
-				break spinLoop;
+	/**
+	 * Offers a future to be completed once all events offered beforehand have been fired
+	 *
+	 * @param deliveryFuture the future
+	 */
+	void offerDeliveryFuture(CompletableFuture<Void> deliveryFuture) {
+		queue.offer(deliveryFuture);
+	}
 
-			case TRANSPOSING:
-				// Spin while waiting for something to happen
-				Thread.onSpinWait();
-				continue spinLoop;
+	/**
+	 * Fires all events in the queue on the current thread, unless another thread is
+	 * already doing so
+	 *
+	 * @param eventBus the event bus
+	 */
+	void fireEvents(EventBus eventBus) {
+		if (requestDrain()) {
+			drain(eventBus);
+		}
+	}
 
-			case FIRING:
-				/*
-				 * OK. Another thread is firing events. That thread will re-poll
-				 * the queue and detect any of our events. Our events may be fired
-				 * after this method returns.
-				 */
-				return;
-			default:
-				throw new IllegalStateException("Unknown state " + witnessValue);
-			}
+	/**
+	 * Fires all events in the queue using the given executor, unless another thread
+	 * is already doing so. If the executor rejects the task, events are fired on the
+	 * current thread.
+	 *
+	 * @param eventBus the event bus
+	 * @param executor the executor
+	 */
+	void fireEvents(EventBus eventBus, Executor executor) {
+		if (!requestDrain()) {
+			return;
 		}
-		RegistryEvent<?> event;
-		while ((event = queue.poll()) != null) {
-			queueState = FIRING;
-			eventBus.fireAsyncEventWithoutFuture(event);
-			queueState = TRANSPOSING;
+		try {
+			executor.execute(() -> drain(eventBus));
+		} catch (RejectedExecutionException ex) {
+			drain(eventBus);
 		}
-		queueState = UNHELD;
+	}
+
+	/**
+	 * Requests that the queue be drained
+	 *
+	 * @return true if the caller is responsible for draining, false if another thread is
+	 */
+	private boolean requestDrain() {
+		/*
+		 * If false, another thread is draining the queue. That thread will re-poll
+		 * the queue and detect any of our events. Our events may be fired
+		 * after fireEvents returns.
+		 */
+		return (int) PENDING_REQUESTS.getAndAdd(this, 1) == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void drain(EventBus eventBus) {
+		int requests = 1;
+		do {
+			Object entry;
+			while ((entry = queue.poll()) != null) {
+				if (entry instanceof CompletableFuture) {
+					((CompletableFuture<Void>) entry).complete(null);
+				} else {
+					eventBus.fireAsyncEventWithoutFuture((RegistryEvent<?>) entry);
+				}
+			}
+			// This pass served every request counted so far. Any remainder arrived meanwhile
+			requests = (int) PENDING_REQUESTS.getAndAdd(this, -requests) - requests;
+		} while (requests != 0);
 	}
 
 }
@@ -0,0 +1,58 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.registry;
+
+import space.arim.omnibus.registry.ProviderHandle;
+
+final class ProviderHandleImpl<T> implements ProviderHandle<T> {
+
+	private final Class<T> service;
+	/**
+	 * Written while the registry holds the lock for the service
+	 */
+	private volatile T provider;
+
+	ProviderHandleImpl(Class<T> service, T provider) {
+		this.service = service;
+		this.provider = provider;
+	}
+
+	@Override
+	public Class<T> getService() {
+		return service;
+	}
+
+	@Override
+	public T get() {
+		return provider;
+	}
+
+	void set(T provider) {
+		this.provider = provider;
+	}
+
+	@Override
+	public String toString() {
+		return "ProviderHandleImpl{" +
+				"service=" + service +
+				", provider=" + provider +
+				'}';
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.registry;
+
+import space.arim.omnibus.registry.Registration;
+import space.arim.omnibus.registry.RegistrationBatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+final class RegistrationBatchImpl implements RegistrationBatch {
+
+	private final DefaultRegistry registry;
+	/**
+	 * Changes grouped by service, each in the order added. Null once applied
+	 */
+	private Map<Class<?>, List<Change<?>>> changes = new LinkedHashMap<>();
+
+	RegistrationBatchImpl(DefaultRegistry registry) {
+		this.registry = registry;
+	}
+
+	private List<Change<?>> changesFor(Class<?> service) {
+		if (changes == null) {
+			throw new IllegalStateException("Batch already applied");
+		}
+		return changes.computeIfAbsent(service, (s) -> new ArrayList<>());
+	}
+
+	@Override
+	public <T> Registration<T> addRegistration(Class<T> service, byte priority, T provider, String name) {
+		service.cast(provider);
+		Registration<T> registration = new Registration<>(priority, provider, name); // constructor checks for null params
+
+		changesFor(service).add(new Change<>(registration, true));
+		return registration;
+	}
+
+	@Override
+	public <T> void addUnregistration(Class<T> service, Registration<T> registration) {
+		Objects.requireNonNull(registration, "registration");
+		changesFor(Objects.requireNonNull(service, "service")).add(new Change<>(registration, false));
+	}
+
+	@Override
+	public void apply() {
+		if (changes == null) {
+			throw new IllegalStateException("Batch already applied");
+		}
+		Map<Class<?>, List<Change<?>>> changes = this.changes;
+		this.changes = null;
+		registry.applyBatch(changes);
+	}
+
+	static final class Change<T> {
+
+		private final Registration<T> registration;
+		private final boolean isRegistration;
+
+		Change(Registration<T> registration, boolean isRegistration) {
+			this.registration = registration;
+			this.isRegistration = isRegistration;
+		}
+
+		Registration<T> registration() {
+			return registration;
+		}
+
+		boolean isRegistration() {
+			return isRegistration;
+		}
+	}
+
+}
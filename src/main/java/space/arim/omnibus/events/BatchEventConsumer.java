@@ -0,0 +1,56 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+import java.util.List;
+
+/**
+ * A listener which may receive multiple events at once, when events are fired in
+ * batches using {@link EventBus#fireEvents(java.util.Collection)}. <br>
+ * <br>
+ * When events are fired individually, {@link #accept(Event)} passes each event as a
+ * batch of one.
+ *
+ * @author A248
+ *
+ * @param <E> the event type
+ */
+public interface BatchEventConsumer<E extends Event> extends EventConsumer<E> {
+
+	/**
+	 * Acts on a batch of events listened to. The events are all instances of the
+	 * same class
+	 *
+	 * @param events the events, an unmodifiable list in the order fired
+	 */
+	void acceptBatch(List<? extends E> events);
+
+	/**
+	 * Acts on the event listened to, by calling {@link #acceptBatch(List)} with the
+	 * single event
+	 *
+	 * @param event the event
+	 */
+	@Override
+	default void accept(E event) {
+		acceptBatch(List.of(event));
+	}
+
+}
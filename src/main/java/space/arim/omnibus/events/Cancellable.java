@@ -34,7 +34,8 @@ public interface Cancellable extends Event {
 	 * Marks an event as cancelled. The event may never be "uncancelled". <br>
 	 * <br>
 	 * The effect of cancellation is determined by the implementer of the event.
-	 * Event listeners are always invoked, regardless of cancellation.
+	 * Event listeners are invoked regardless of cancellation, unless they were
+	 * registered to ignore cancelled events.
 	 * 
 	 */
 	void cancel();
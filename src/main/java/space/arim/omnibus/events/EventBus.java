@@ -18,7 +18,13 @@
  */
 package space.arim.omnibus.events;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A framework for firing events and listening to them. <br>
@@ -62,6 +68,76 @@ public interface EventBus {
 	 */
 	<E extends Event> void fireEvent(E event);
 
+	/**
+	 * Fires an event constructed on demand, invoking all applicable listeners. <br>
+	 * <br>
+	 * If there are no listeners to the event class, the event is not constructed. This
+	 * spares callers the cost of building events which nobody listens to. Otherwise, this
+	 * is equivalent to {@code fireEvent(eventSupplier.get())}. <br>
+	 * <br>
+	 * The default implementation checks {@link #hasListeners(Class)} before constructing
+	 * and firing the event.
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the concrete class of the event supplied
+	 * @param eventSupplier the supplier of the event
+	 * @throws IllegalArgumentException if {@code eventClass} is an {@link AsyncEvent}
+	 */
+	default <E extends Event> void fireEvent(Class<E> eventClass, Supplier<? extends E> eventSupplier) {
+		if (AsyncEvent.class.isAssignableFrom(eventClass)) {
+			throw new IllegalArgumentException("Cannot use #fireEvent with asynchronous capable events");
+		}
+		Objects.requireNonNull(eventSupplier, "eventSupplier");
+		if (hasListeners(eventClass)) {
+			fireEvent(eventSupplier.get());
+		}
+	}
+
+	/**
+	 * Determines whether any listeners would be called if an instance of the specified
+	 * event class is fired. This is cheap, and may be used to skip constructing events
+	 * nobody listens to. <br>
+	 * <br>
+	 * Note that listeners may be concurrently registered and unregistered. <br>
+	 * <br>
+	 * The default implementation uses {@link EventBusDriver#getRegisteredListenerCount(Class)}.
+	 *
+	 * @param eventClass the concrete event class, an instance of which would be fired
+	 * @return true if there are listeners to the event class
+	 */
+	default boolean hasListeners(Class<? extends Event> eventClass) {
+		return getDriver().getRegisteredListenerCount(eventClass) != 0;
+	}
+
+	/**
+	 * Fires multiple events, invoking all applicable listeners for each. <br>
+	 * <br>
+	 * This is more efficient than firing each event individually. Consecutive events
+	 * of the same class are fired together: each listener is called for every such
+	 * event before the next listener is called. Thus listeners are still called in order
+	 * of priority for each event, but not necessarily interleaved as they would be were
+	 * the events fired individually. Listeners using {@link BatchEventConsumer} receive
+	 * such events at once. <br>
+	 * <br>
+	 * As with {@link #fireEvent(Event)}, events capable of asynchronous listeners are
+	 * not permitted. If any event is an {@link AsyncEvent}, no events are fired. <br>
+	 * <br>
+	 * The default implementation fires each event individually using {@link #fireEvent(Event)}.
+	 *
+	 * @param <E>    the event type
+	 * @param events the events to fire, in order. Arrays may be passed using {@link java.util.Arrays#asList(Object[])}
+	 * @throws IllegalArgumentException if any event is an {@link AsyncEvent}
+	 */
+	default <E extends Event> void fireEvents(Collection<? extends E> events) {
+		List<? extends E> eventList = List.copyOf(events);
+		for (E event : eventList) {
+			if (event instanceof AsyncEvent) {
+				throw new IllegalArgumentException("Cannot use #fireEvents with asynchronous capable events");
+			}
+		}
+		eventList.forEach(this::fireEvent);
+	}
+
 	/**
 	 * Fires an asynchronous capable event, invoking all applicable listeners. <br>
 	 * <br>
@@ -117,6 +193,86 @@ public interface EventBus {
 	<E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
 			EventConsumer<? super E> eventConsumer);
 
+	/**
+	 * Creates and registers a listener, optionally ignoring cancelled events,
+	 * returning the created listener. <br>
+	 * <br>
+	 * A listener ignoring cancelled events is not called for any event which is
+	 * {@link Cancellable} and has been cancelled, by an earlier listener or otherwise,
+	 * by the time the listener would be called. Otherwise, this behaves as
+	 * {@link #registerListener(Class, byte, EventConsumer)}. <br>
+	 * <br>
+	 * The default implementation registers a listener which checks whether the event
+	 * is cancelled before calling the event consumer.
+	 *
+	 * @param <E>             the event type
+	 * @param eventClass      the event class. All instances of this class, including
+	 *                        subclasses, will be listened to
+	 * @param priority        the priority at which the listener is placed
+	 * @param ignoreCancelled whether to skip the listener for cancelled events
+	 * @param eventConsumer   the logic to run when the event fires
+	 * @return a listener which may be unregistered when necessary
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 */
+	default <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			boolean ignoreCancelled, EventConsumer<? super E> eventConsumer) {
+		if (!ignoreCancelled) {
+			return registerListener(eventClass, priority, eventConsumer);
+		}
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return registerListener(eventClass, priority, (E event) -> {
+			if (!(event instanceof Cancellable) || !((Cancellable) event).isCancelled()) {
+				eventConsumer.accept(event);
+			}
+		});
+	}
+
+	/**
+	 * Creates and registers a listener which is called only for some events, returning
+	 * the created listener. <br>
+	 * <br>
+	 * The type filter is tested against each concrete event class to which the event
+	 * class is assignable. If it rejects the class, the listener is never called for
+	 * instances of the class. The type filter should therefore be a pure function.
+	 * It is evaluated once per concrete class, rather than once per event, so it
+	 * costs nothing while events are fired. <br>
+	 * <br>
+	 * The event filter is tested against each event before the event consumer is called.
+	 * If it rejects the event, the event consumer is not called. The event filter should
+	 * be cheap. <br>
+	 * <br>
+	 * Otherwise, this behaves as {@link #registerListener(Class, byte, EventConsumer)}.
+	 * This is useful for listeners which would otherwise listen to a broad event class
+	 * and filter events themselves. <br>
+	 * <br>
+	 * The default implementation registers a listener which tests both filters against
+	 * each event before calling the event consumer, so the type filter is not free.
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the event class. Instances of this class, including
+	 *                      subclasses, will be listened to if accepted by the filters
+	 * @param priority      the priority at which the listener is placed
+	 * @param typeFilter    the filter of concrete event classes
+	 * @param eventFilter   the filter of events
+	 * @param eventConsumer the logic to run when the event fires
+	 * @return a listener which may be unregistered when necessary
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 */
+	default <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter,
+			EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(typeFilter, "typeFilter");
+		Objects.requireNonNull(eventFilter, "eventFilter");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return registerListener(eventClass, priority, (E event) -> {
+			@SuppressWarnings("unchecked")
+			Class<? extends E> concreteEventClass = (Class<? extends E>) event.getClass();
+			if (typeFilter.test(concreteEventClass) && eventFilter.test(event)) {
+				eventConsumer.accept(event);
+			}
+		});
+	}
+
 	/**
 	 * Creates and registers an asynchronous listener, returning the created
 	 * listener. <br>
@@ -144,6 +300,49 @@ public interface EventBus {
 	<E extends AsyncEvent> RegisteredListener registerListener(Class<E> eventClass, byte priority,
 			AsynchronousEventConsumer<? super E> asyncEventConsumer);
 
+	/**
+	 * Creates and registers a listener which runs on the specified executor, returning
+	 * the created listener. <br>
+	 * The returned registered listener may be unregistered when desired. <br>
+	 * <br>
+	 * When the event is fired, the event consumer is called using the executor, after
+	 * which the fire continues with the next listener. This spares the consumer from
+	 * having to switch threads and continue the fire itself, as would an
+	 * {@link AsynchronousEventConsumer}. Consecutive listeners, in order of priority,
+	 * which use the same executor are called in a single task. <br>
+	 * <br>
+	 * The priority and event class behave as with
+	 * {@link #registerListener(Class, byte, AsynchronousEventConsumer)}. <br>
+	 * <br>
+	 * The default implementation registers an asynchronous listener which calls the
+	 * event consumer using the executor, then continues the fire. It does not combine
+	 * consecutive listeners into a single task.
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the event class. All instances of this class,
+	 *                      including subclasses, will be listened to
+	 * @param priority      the priority at which the listener is placed
+	 * @param executor      the executor on which to call the event consumer
+	 * @param eventConsumer the logic to run when the event fires
+	 * @return a listener which may be unregistered when necessary
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 */
+	default <E extends AsyncEvent> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+			Executor executor, EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(executor, "executor");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		AsynchronousEventConsumer<E> asyncEventConsumer = (event, controller) -> {
+			executor.execute(() -> {
+				try {
+					eventConsumer.accept(event);
+				} finally {
+					controller.continueFire();
+				}
+			});
+		};
+		return registerListener(eventClass, priority, asyncEventConsumer);
+	}
+
 	/**
 	 * Registers all methods on the target listener object which are annotated with
 	 * {@link ListeningMethod}. Inherited methods are included. <br>
@@ -160,6 +359,35 @@ public interface EventBus {
 	 */
 	void registerListeningMethods(Object annotatedListener);
 
+	/**
+	 * Registers all methods on the target listener object which are annotated with
+	 * {@link ListeningMethod}, holding the listener object weakly. <br>
+	 * <br>
+	 * The event bus does not keep the listener object reachable. Once the listener object
+	 * is garbage collected, its listening methods are no longer called, and they are
+	 * automatically unregistered soon after. The listener object may still be unregistered
+	 * explicitly with {@link #unregisterListeningMethods(Object)}. <br>
+	 * <br>
+	 * Listening methods registered weakly are called through a slower path than those
+	 * registered normally. In all other respects, this is equivalent to
+	 * {@link #registerListeningMethods(Object)}. <br>
+	 * <br>
+	 * The default implementation throws {@code UnsupportedOperationException}, rather
+	 * than registering the listener object strongly and thus keeping it reachable.
+	 * Event buses supporting weak registration should override it.
+	 *
+	 * @param annotatedListener the listener whose annotated methods to register
+	 * @throws IllegalStateException    if the listener object is already registered
+	 * @throws IllegalArgumentException if any method on the listener object
+	 *                                  annotated with {@link ListeningMethod} does
+	 *                                  not obey the requirements of it, or the
+	 *                                  listener object is in an unexported package
+	 * @throws UnsupportedOperationException if this event bus does not support weak registration
+	 */
+	default void registerWeakListeningMethods(Object annotatedListener) {
+		throw new UnsupportedOperationException("Weak registration is not supported by " + getClass().getName());
+	}
+
 	/**
 	 * Unregister a registered listener. <br>
 	 * <br>
@@ -180,6 +408,20 @@ public interface EventBus {
 	 */
 	void unregisterListeningMethods(Object annotatedListener);
 
+	/**
+	 * Creates a batch of listeners, which may be used to register and unregister many
+	 * listeners at once. See {@link ListenerBatch} <br>
+	 * <br>
+	 * The default implementation returns a batch which registers and unregisters each
+	 * listener individually. Listeners returned from such a batch stand in for those
+	 * registered with the event bus, and so are unregistered only with the batch.
+	 *
+	 * @return a new, empty listener batch
+	 */
+	default ListenerBatch createListenerBatch() {
+		return new SequentialListenerBatch(this);
+	}
+
 	/**
 	 * Gets the lower level event bus driver. Should not be used by most API users
 	 *
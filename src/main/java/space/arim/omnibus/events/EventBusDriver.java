@@ -20,6 +20,8 @@
 package space.arim.omnibus.events;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -42,6 +44,26 @@ public interface EventBusDriver {
 	 */
 	void fireEvent(Object event);
 
+	/**
+	 * Fires multiple events, with the normal restriction that the events implement {@code Event} relaxed. <br>
+	 * <br>
+	 * In all other details, this is equivalent to {@link EventBus#fireEvents(Collection)}. <br>
+	 * <br>
+	 * The default implementation fires each event individually using {@link #fireEvent(Object)}.
+	 *
+	 * @param events the events to fire
+	 * @throws IllegalArgumentException if any event is an {@link AsyncEvent}
+	 */
+	default void fireEvents(Collection<?> events) {
+		List<?> eventList = List.copyOf(events);
+		for (Object event : eventList) {
+			if (event instanceof AsyncEvent) {
+				throw new IllegalArgumentException("Cannot use #fireEvents with asynchronous capable events");
+			}
+		}
+		eventList.forEach(this::fireEvent);
+	}
+
 	/**
 	 * Registers a listener, with the normal restriction that the event implement {@code Event} relaxed. <br>
 	 * <br>
@@ -87,6 +109,32 @@ public interface EventBusDriver {
 	 */
 	int getRegisteredListenerCount(Class<?> eventClass);
 
+	/**
+	 * Gets the amount of events fired for which there were no listeners, including
+	 * events never constructed through {@link EventBus#fireEvent(Class, java.util.function.Supplier)}. <br>
+	 * <br>
+	 * Drivers may choose not to count such events, in which case this returns 0.
+	 * The default implementation returns 0.
+	 *
+	 * @return the amount of dead events
+	 */
+	default long getDeadEventCount() {
+		return 0L;
+	}
+
+	/**
+	 * Takes a snapshot of the metrics of every registered listener. This may be used to
+	 * find which listeners are slow or failing. <br>
+	 * <br>
+	 * Drivers may choose not to record listener metrics, in which case this returns an
+	 * empty list. The default implementation returns an empty list.
+	 *
+	 * @return the metrics of each registered listener, in no particular order
+	 */
+	default List<ListenerMetrics> getListenerMetrics() {
+		return List.of();
+	}
+
 	/**
 	 * Generates brief debug report for an event class. May yield information about
 	 * listeners registered for such event, cached listeners, etc. <br>
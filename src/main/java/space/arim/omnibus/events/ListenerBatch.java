@@ -0,0 +1,153 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * A batch of listeners which are registered and unregistered together. Obtained from
+ * {@link EventBus#createListenerBatch()}. <br>
+ * <br>
+ * Listeners are added to the batch, then registered at once using {@link #register()}.
+ * Registering many listeners as a batch is considerably more efficient than registering
+ * each individually, as the event bus need only update its listener structures once. <br>
+ * <br>
+ * A batch may later be unregistered using {@link #unregister()}, after which it may be
+ * modified and registered again. Listeners returned from the batch may also be
+ * unregistered individually through {@link EventBus#unregisterListener(RegisteredListener)}. <br>
+ * <br>
+ * Batches are not safe for concurrent use by multiple threads.
+ *
+ * @author A248
+ *
+ */
+public interface ListenerBatch {
+
+	/**
+	 * Adds a listener to this batch, returning the created listener. See
+	 * {@link EventBus#registerListener(Class, byte, EventConsumer)}
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the event class
+	 * @param priority      the priority at which the listener is placed
+	 * @param eventConsumer the logic to run when the event fires
+	 * @return a listener which will be registered when this batch is registered
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 * @throws IllegalStateException if this batch is registered
+	 */
+	<E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			EventConsumer<? super E> eventConsumer);
+
+	/**
+	 * Adds a listener, optionally ignoring cancelled events, to this batch, returning
+	 * the created listener. See {@link EventBus#registerListener(Class, byte, boolean, EventConsumer)}
+	 *
+	 * @param <E>             the event type
+	 * @param eventClass      the event class
+	 * @param priority        the priority at which the listener is placed
+	 * @param ignoreCancelled whether to skip the listener for cancelled events
+	 * @param eventConsumer   the logic to run when the event fires
+	 * @return a listener which will be registered when this batch is registered
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 * @throws IllegalStateException if this batch is registered
+	 */
+	<E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			boolean ignoreCancelled, EventConsumer<? super E> eventConsumer);
+
+	/**
+	 * Adds a listener which is called only for some events to this batch, returning
+	 * the created listener. See
+	 * {@link EventBus#registerListener(Class, byte, Predicate, Predicate, EventConsumer)}
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the event class
+	 * @param priority      the priority at which the listener is placed
+	 * @param typeFilter    the filter of concrete event classes
+	 * @param eventFilter   the filter of events
+	 * @param eventConsumer the logic to run when the event fires
+	 * @return a listener which will be registered when this batch is registered
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 * @throws IllegalStateException if this batch is registered
+	 */
+	<E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter,
+			EventConsumer<? super E> eventConsumer);
+
+	/**
+	 * Adds an asynchronous listener to this batch, returning the created listener. See
+	 * {@link EventBus#registerListener(Class, byte, AsynchronousEventConsumer)}
+	 *
+	 * @param <E>                the event type
+	 * @param eventClass         the event class
+	 * @param priority           the priority at which the listener is placed
+	 * @param asyncEventConsumer the logic to run when the event fires
+	 * @return a listener which will be registered when this batch is registered
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 * @throws IllegalStateException if this batch is registered
+	 */
+	<E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			AsynchronousEventConsumer<? super E> asyncEventConsumer);
+
+	/**
+	 * Adds a listener which runs on the specified executor to this batch, returning the
+	 * created listener. See {@link EventBus#registerListener(Class, byte, Executor, EventConsumer)}
+	 *
+	 * @param <E>           the event type
+	 * @param eventClass    the event class
+	 * @param priority      the priority at which the listener is placed
+	 * @param executor      the executor on which to call the event consumer
+	 * @param eventConsumer the logic to run when the event fires
+	 * @return a listener which will be registered when this batch is registered
+	 * @throws IllegalArgumentException if the event class is an array, a primitive, or {@code Object}
+	 * @throws IllegalStateException if this batch is registered
+	 */
+	<E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Executor executor, EventConsumer<? super E> eventConsumer);
+
+	/**
+	 * Adds all methods on the target listener object which are annotated with
+	 * {@link ListeningMethod} to this batch. See {@link EventBus#registerListeningMethods(Object)}
+	 *
+	 * @param annotatedListener the listener whose annotated methods to add
+	 * @throws IllegalArgumentException if any method on the listener object
+	 *                                  annotated with {@link ListeningMethod} does
+	 *                                  not obey the requirements of it, or the
+	 *                                  listener object is in an unexported package
+	 * @throws IllegalStateException if this batch is registered, or already contains the listener object
+	 */
+	void addListeningMethods(Object annotatedListener);
+
+	/**
+	 * Registers all listeners in this batch at once
+	 *
+	 * @throws IllegalStateException if this batch is already registered, or any of its
+	 *                               annotated listener objects are already registered
+	 */
+	void register();
+
+	/**
+	 * Unregisters all listeners in this batch at once. If the batch is not registered,
+	 * this is a no-op.
+	 *
+	 */
+	void unregister();
+
+}
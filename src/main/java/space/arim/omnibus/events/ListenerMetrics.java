@@ -0,0 +1,142 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+import java.util.Objects;
+
+/**
+ * A snapshot of the metrics of a registered listener, obtained from
+ * {@link EventBusDriver#getListenerMetrics()}. <br>
+ * <br>
+ * Timings cover only the call of the event consumer. For an asynchronous listener,
+ * this is the time until its consumer returns, which excludes any time before it
+ * continues the event fire. <br>
+ * <br>
+ * Metrics are recorded concurrently with the taking of a snapshot, so the values
+ * of a snapshot are not necessarily consistent with one another.
+ *
+ * @author A248
+ *
+ */
+public final class ListenerMetrics {
+
+	private final RegisteredListener listener;
+	private final Class<?> eventClass;
+	private final byte priority;
+	private final long invocationCount;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long exceptionCount;
+
+	/**
+	 * Creates from the metrics of a listener
+	 *
+	 * @param listener the registered listener
+	 * @param eventClass the event class of the listener
+	 * @param priority the priority of the listener
+	 * @param invocationCount the amount of times the listener was called
+	 * @param totalNanos the cumulative time spent calling the listener, in nanoseconds
+	 * @param maxNanos the longest time spent in a single call, in nanoseconds
+	 * @param exceptionCount the amount of calls which threw an exception
+	 * @throws NullPointerException if {@code listener} or {@code eventClass} is null
+	 */
+	public ListenerMetrics(RegisteredListener listener, Class<?> eventClass, byte priority,
+			long invocationCount, long totalNanos, long maxNanos, long exceptionCount) {
+		this.listener = Objects.requireNonNull(listener, "listener");
+		this.eventClass = Objects.requireNonNull(eventClass, "eventClass");
+		this.priority = priority;
+		this.invocationCount = invocationCount;
+		this.totalNanos = totalNanos;
+		this.maxNanos = maxNanos;
+		this.exceptionCount = exceptionCount;
+	}
+
+	/**
+	 * Gets the registered listener
+	 *
+	 * @return the listener
+	 */
+	public RegisteredListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Gets the event class the listener listens to
+	 *
+	 * @return the event class
+	 */
+	public Class<?> getEventClass() {
+		return eventClass;
+	}
+
+	/**
+	 * Gets the priority of the listener
+	 *
+	 * @return the priority
+	 */
+	public byte getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Gets the amount of times the listener was called. A batch of events given to a
+	 * {@link BatchEventConsumer} counts as a single call.
+	 *
+	 * @return the invocation count
+	 */
+	public long getInvocationCount() {
+		return invocationCount;
+	}
+
+	/**
+	 * Gets the cumulative time spent calling the listener
+	 *
+	 * @return the total time in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Gets the longest time spent in a single call of the listener
+	 *
+	 * @return the maximum time in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Gets the amount of calls of the listener which threw an exception
+	 *
+	 * @return the exception count
+	 */
+	public long getExceptionCount() {
+		return exceptionCount;
+	}
+
+	@Override
+	public String toString() {
+		return "ListenerMetrics [listener=" + listener + ", eventClass=" + eventClass.getName()
+				+ ", priority=" + priority + ", invocationCount=" + invocationCount + ", totalNanos=" + totalNanos
+				+ ", maxNanos=" + maxNanos + ", exceptionCount=" + exceptionCount + "]";
+	}
+
+}
@@ -53,5 +53,14 @@ public @interface ListeningMethod {
 	 * @return the listening priority
 	 */
 	byte priority() default ListenerPriorities.NORMAL;
+
+	/**
+	 * Whether to skip the listening method for events which are {@link Cancellable}
+	 * and already cancelled when the listener would be called. See
+	 * {@link EventBus#registerListener(Class, byte, boolean, EventConsumer)}
+	 *
+	 * @return whether to ignore cancelled events
+	 */
+	boolean ignoreCancelled() default false;
 	
 }
@@ -0,0 +1,40 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+/**
+ * An {@link AsyncEvent} whose listeners at the same priority are independent of
+ * one another, and may therefore be called concurrently. <br>
+ * <br>
+ * Listeners are grouped into tiers by priority. All listeners in a tier are called
+ * in parallel, and the next tier begins only once every listener in the previous
+ * tier has completed, including asynchronous listeners continuing the fire. Thus
+ * listeners at different priorities still observe each other's changes in order of
+ * priority. <br>
+ * <br>
+ * Since listeners in the same tier may run simultaneously, any state they share,
+ * including the event itself, must be thread safe.
+ *
+ * @author A248
+ *
+ */
+public interface ParallelAsyncEvent extends AsyncEvent {
+
+}
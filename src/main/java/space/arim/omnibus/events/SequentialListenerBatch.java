@@ -0,0 +1,175 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Batch which registers and unregisters its listeners individually. Used by event
+ * buses which do not implement batching themselves. <br>
+ * <br>
+ * If registering any listener fails, those already registered are unregistered.
+ *
+ */
+final class SequentialListenerBatch implements ListenerBatch {
+
+	private final EventBus eventBus;
+	private final List<BatchedListener> listeners = new ArrayList<>();
+	private final Set<Object> annotatedListeners = Collections.newSetFromMap(new IdentityHashMap<>());
+	private boolean registered;
+
+	SequentialListenerBatch(EventBus eventBus) {
+		this.eventBus = eventBus;
+	}
+
+	private void checkNotRegistered() {
+		if (registered) {
+			throw new IllegalStateException("Batch is registered");
+		}
+	}
+
+	private RegisteredListener addListener(Function<EventBus, RegisteredListener> registration) {
+		checkNotRegistered();
+		BatchedListener listener = new BatchedListener(registration);
+		listeners.add(listener);
+		return listener;
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(eventClass, "eventClass");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return addListener((eventBus) -> eventBus.registerListener(eventClass, priority, eventConsumer));
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			boolean ignoreCancelled, EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(eventClass, "eventClass");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return addListener((eventBus) -> eventBus.registerListener(eventClass, priority, ignoreCancelled, eventConsumer));
+	}
+
+	@Override
+	public <E extends Event> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Predicate<Class<? extends E>> typeFilter, Predicate<? super E> eventFilter,
+			EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(eventClass, "eventClass");
+		Objects.requireNonNull(typeFilter, "typeFilter");
+		Objects.requireNonNull(eventFilter, "eventFilter");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return addListener((eventBus) -> eventBus.registerListener(
+				eventClass, priority, typeFilter, eventFilter, eventConsumer));
+	}
+
+	@Override
+	public <E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			AsynchronousEventConsumer<? super E> asyncEventConsumer) {
+		Objects.requireNonNull(eventClass, "eventClass");
+		Objects.requireNonNull(asyncEventConsumer, "asyncEventConsumer");
+		return addListener((eventBus) -> eventBus.registerListener(eventClass, priority, asyncEventConsumer));
+	}
+
+	@Override
+	public <E extends AsyncEvent> RegisteredListener addListener(Class<E> eventClass, byte priority,
+			Executor executor, EventConsumer<? super E> eventConsumer) {
+		Objects.requireNonNull(eventClass, "eventClass");
+		Objects.requireNonNull(executor, "executor");
+		Objects.requireNonNull(eventConsumer, "eventConsumer");
+		return addListener((eventBus) -> eventBus.registerListener(eventClass, priority, executor, eventConsumer));
+	}
+
+	@Override
+	public void addListeningMethods(Object annotatedListener) {
+		Objects.requireNonNull(annotatedListener, "annotatedListener");
+		checkNotRegistered();
+		if (!annotatedListeners.add(annotatedListener)) {
+			throw new IllegalStateException("Listener " + annotatedListener + " is already in this batch");
+		}
+	}
+
+	@Override
+	public void register() {
+		if (registered) {
+			throw new IllegalStateException("Batch is already registered");
+		}
+		List<Object> registeredAnnotatedListeners = new ArrayList<>(annotatedListeners.size());
+		try {
+			for (Object annotatedListener : annotatedListeners) {
+				eventBus.registerListeningMethods(annotatedListener);
+				registeredAnnotatedListeners.add(annotatedListener);
+			}
+			for (BatchedListener listener : listeners) {
+				listener.register(eventBus);
+			}
+		} catch (RuntimeException ex) {
+			registeredAnnotatedListeners.forEach(eventBus::unregisterListeningMethods);
+			listeners.forEach((listener) -> listener.unregister(eventBus));
+			throw ex;
+		}
+		registered = true;
+	}
+
+	@Override
+	public void unregister() {
+		if (!registered) {
+			return;
+		}
+		annotatedListeners.forEach(eventBus::unregisterListeningMethods);
+		listeners.forEach((listener) -> listener.unregister(eventBus));
+		registered = false;
+	}
+
+	/**
+	 * Listener returned from the batch, which stands in for the listener registered
+	 * with the event bus when the batch is registered
+	 *
+	 */
+	private static final class BatchedListener implements RegisteredListener {
+
+		private final Function<EventBus, RegisteredListener> registration;
+		private RegisteredListener registeredListener;
+
+		BatchedListener(Function<EventBus, RegisteredListener> registration) {
+			this.registration = registration;
+		}
+
+		void register(EventBus eventBus) {
+			registeredListener = registration.apply(eventBus);
+		}
+
+		void unregister(EventBus eventBus) {
+			if (registeredListener != null) {
+				eventBus.unregisterListener(registeredListener);
+				registeredListener = null;
+			}
+		}
+	}
+
+}
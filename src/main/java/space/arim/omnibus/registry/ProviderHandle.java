@@ -0,0 +1,49 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.registry;
+
+/**
+ * A handle to the highest priority provider of a service. Obtained from
+ * {@link Registry#getProviderHandle(Class)}. <br>
+ * <br>
+ * The handle reflects changes to the highest priority provider as they happen,
+ * so that it may be retained and queried repeatedly, such as for services which are
+ * looked up very frequently. Querying the handle does not allocate.
+ * 
+ * @param <T> the service type
+ */
+public interface ProviderHandle<T> {
+
+	/**
+	 * Gets the service class
+	 * 
+	 * @return the service class
+	 */
+	Class<T> getService();
+
+	/**
+	 * Gets the current highest priority provider of the service, or {@code null}
+	 * if there is none
+	 * 
+	 * @return the highest priority provider, or null if not found
+	 */
+	T get();
+
+}
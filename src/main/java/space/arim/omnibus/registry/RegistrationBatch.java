@@ -0,0 +1,77 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.registry;
+
+/**
+ * A batch of registrations and unregistrations which are applied together. Obtained
+ * from {@link Registry#createRegistrationBatch()}. <br>
+ * <br>
+ * Changes are added to the batch, then applied at once using {@link #apply()}, in the
+ * order in which they were added. Applying many changes as a batch may be more efficient
+ * than making each individually: the registry may update each service once, and fire
+ * only the net {@link ServiceChangeEvent} for each service rather than one for every
+ * intermediate change. <br>
+ * <br>
+ * A batch may be applied only once. Batches are not safe for concurrent use by multiple threads.
+ *
+ */
+public interface RegistrationBatch {
+
+	/**
+	 * Adds a registration to this batch, returning the registration which will be
+	 * registered when the batch is applied. See {@link Registry#register(Class, byte, Object, String)}
+	 *
+	 * @param <T> the service type
+	 * @param service the service class
+	 * @param priority the registration priority
+	 * @param provider the resource to register, must not be null
+	 * @param name a user friendly name for the implementation, must not be null
+	 * @return the registration to be added to the registry, formed from the parameters
+	 * @throws IllegalStateException if this batch was already applied
+	 */
+	<T> Registration<T> addRegistration(Class<T> service, byte priority, T provider, String name);
+
+	/**
+	 * Adds an unregistration to this batch. See {@link Registry#unregister(Class, Registration)}. <br>
+	 * <br>
+	 * If the registration is not registered when the batch is applied, the unregistration
+	 * is a no-op.
+	 *
+	 * @param <T> the service type
+	 * @param service the service class
+	 * @param registration the registration to unregister
+	 * @throws IllegalStateException if this batch was already applied
+	 */
+	<T> void addUnregistration(Class<T> service, Registration<T> registration);
+
+	/**
+	 * Applies all changes in this batch. <br>
+	 * <br>
+	 * If a registration would duplicate an existing registration of the same provider,
+	 * a {@code DuplicateRegistrationException} is thrown, and no changes to the service
+	 * concerned are applied. Depending on the implementation, changes to other services
+	 * may or may not have been applied.
+	 *
+	 * @throws DuplicateRegistrationException if a provider would be registered twice for the same service
+	 * @throws IllegalStateException if this batch was already applied
+	 */
+	void apply();
+
+}
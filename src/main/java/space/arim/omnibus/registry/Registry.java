@@ -19,7 +19,9 @@
 package space.arim.omnibus.registry;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A framework for registering and loading services. <br>
@@ -94,6 +96,32 @@ public interface Registry {
 	 */
 	<T> Optional<T> getProvider(Class<T> service);
 	
+	/**
+	 * Gets a handle to the highest priority provider of a service. The handle reflects
+	 * subsequent registrations and unregistrations, and may be queried without allocating. <br>
+	 * <br>
+	 * The default implementation returns a handle which calls {@link #getProvider(Class)}.
+	 * 
+	 * @param <T> the service type
+	 * @param service the service class
+	 * @return a handle to the highest priority provider
+	 */
+	default <T> ProviderHandle<T> getProviderHandle(Class<T> service) {
+		Objects.requireNonNull(service, "service");
+		return new ProviderHandle<>() {
+
+			@Override
+			public Class<T> getService() {
+				return service;
+			}
+
+			@Override
+			public T get() {
+				return getProvider(service).orElse(null);
+			}
+		};
+	}
+	
 	/**
 	 * Retrieves the highest priority registration for a service. <br>
 	 * <br>
@@ -129,6 +157,27 @@ public interface Registry {
 	 */
 	<T> boolean isProvidedFor(Class<T> service);
 	
+	/**
+	 * Gets all registrations for services assignable to the specified type, as an
+	 * immutable list. For example, this finds all providers implementing an interface,
+	 * whether registered under the interface itself or under a subtype of it. <br>
+	 * The list is sorted in ascending priority. The last element has the highest priority. <br>
+	 * <br>
+	 * A provider registered under multiple such services appears once for each registration.
+	 * If no such registrations are found, an empty list is returned. <br>
+	 * <br>
+	 * The default implementation considers only the type itself, returning the same
+	 * registrations as {@link #getAllRegistrations(Class)}. Registries able to find
+	 * services registered under subtypes should override it.
+	 * 
+	 * @param <T> the type
+	 * @param type the type to which services must be assignable
+	 * @return an unmodifiable list of all registrations for services assignable to the type, never null
+	 */
+	default <T> List<Registration<? extends T>> getAllAssignableRegistrations(Class<T> type) {
+		return List.copyOf(getAllRegistrations(type));
+	}
+	
 	/**
 	 * Unregisters the specified {@link Registration}, and returns the updated highest priority
 	 * registration after the specified {@code Registration} is unregistered. <br>
@@ -142,4 +191,34 @@ public interface Registry {
 	 */
 	<T> Optional<Registration<T>> unregister(Class<T> service, Registration<T> registration);
 	
+	/**
+	 * Creates a batch of registrations and unregistrations to be applied together.
+	 * See {@link RegistrationBatch} <br>
+	 * <br>
+	 * The default implementation returns a batch which applies each change individually.
+	 * 
+	 * @return a new registration batch
+	 */
+	default RegistrationBatch createRegistrationBatch() {
+		return new SequentialRegistrationBatch(this);
+	}
+	
+	/**
+	 * Gets a future which is completed once all {@link RegistryEvent}s for changes already
+	 * made to the registry have been delivered. <br>
+	 * <br>
+	 * Registry events may be delivered after a registration or unregistration returns,
+	 * for instance if another thread is delivering events at the time, or if the
+	 * registry delivers events asynchronously. Calling this method after a change
+	 * allows awaiting the delivery of the events for that change. <br>
+	 * <br>
+	 * The default implementation returns an already completed future, which is suitable
+	 * only for registries delivering events before each change returns.
+	 * 
+	 * @return a future completed once events for all previous changes have been delivered
+	 */
+	default CompletableFuture<Void> whenEventsDelivered() {
+		return CompletableFuture.completedFuture(null);
+	}
+	
 }
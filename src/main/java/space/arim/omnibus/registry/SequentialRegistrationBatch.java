@@ -0,0 +1,69 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Batch which applies its changes individually, in order. Used by registries
+ * which do not implement batching themselves.
+ *
+ */
+final class SequentialRegistrationBatch implements RegistrationBatch {
+
+	private final Registry registry;
+	private List<Runnable> changes = new ArrayList<>();
+
+	SequentialRegistrationBatch(Registry registry) {
+		this.registry = registry;
+	}
+
+	private List<Runnable> changes() {
+		if (changes == null) {
+			throw new IllegalStateException("Batch already applied");
+		}
+		return changes;
+	}
+
+	@Override
+	public <T> Registration<T> addRegistration(Class<T> service, byte priority, T provider, String name) {
+		service.cast(provider);
+		Registration<T> registration = new Registration<>(priority, provider, name);
+		changes().add(() -> registry.register(service, priority, provider, name));
+		return registration;
+	}
+
+	@Override
+	public <T> void addUnregistration(Class<T> service, Registration<T> registration) {
+		Objects.requireNonNull(service, "service");
+		Objects.requireNonNull(registration, "registration");
+		changes().add(() -> registry.unregister(service, registration));
+	}
+
+	@Override
+	public void apply() {
+		List<Runnable> changes = changes();
+		this.changes = null;
+		changes.forEach(Runnable::run);
+	}
+
+}
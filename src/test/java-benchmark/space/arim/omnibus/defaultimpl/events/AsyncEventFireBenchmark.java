@@ -0,0 +1,122 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventConsumer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static space.arim.omnibus.defaultimpl.events.EventHierarchy.AsyncLevel0;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncEventFireBenchmark {
+
+	@Param({"0", "1", "10", "100"})
+	public int listenerCount;
+
+	/**
+	 * Listeners are spread evenly across each level of the hierarchy up to this depth.
+	 * The fired event is an instance of the deepest level
+	 */
+	@Param({"0", "4"})
+	public int hierarchyDepth;
+
+	/**
+	 * Percentage of listeners which are asynchronous. Asynchronous listeners continue
+	 * the fire immediately, on the same thread
+	 */
+	@Param({"0", "50", "100"})
+	public int asyncPercentage;
+
+	private EventBus eventBus;
+
+	@Setup
+	public void setup() {
+		eventBus = new DefaultEvents();
+		EventConsumer<AsyncLevel0> eventConsumer = (event) -> event.value++;
+		AsynchronousEventConsumer<AsyncLevel0> asyncEventConsumer = (event, controller) -> {
+			event.value++;
+			controller.continueFire();
+		};
+		for (int n = 0; n < listenerCount; n++) {
+			var eventClass = EventHierarchy.asyncLevel(n % (hierarchyDepth + 1));
+			byte priority = (byte) n;
+			if (n * 100 < asyncPercentage * listenerCount) {
+				eventBus.registerListener(eventClass, priority, asyncEventConsumer);
+			} else {
+				eventBus.registerListener(eventClass, priority, eventConsumer);
+			}
+		}
+		// Bake listeners before measurement
+		eventBus.fireAsyncEventWithoutFuture(EventHierarchy.newInstance(EventHierarchy.asyncLevel(hierarchyDepth)));
+	}
+
+	/**
+	 * The event fired, held per thread to avoid contention on the event itself
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class FiredEvent {
+
+		AsyncLevel0 event;
+
+		@Setup
+		public void setup(AsyncEventFireBenchmark benchmark) {
+			event = EventHierarchy.newInstance(EventHierarchy.asyncLevel(benchmark.hierarchyDepth));
+		}
+	}
+
+	@Benchmark
+	public CompletableFuture<AsyncLevel0> fireAsyncEvent(FiredEvent firedEvent) {
+		return eventBus.fireAsyncEvent(firedEvent.event);
+	}
+
+	@Benchmark
+	public void fireAsyncEventWithoutFuture(FiredEvent firedEvent) {
+		eventBus.fireAsyncEventWithoutFuture(firedEvent.event);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void fireAsyncEventWithoutFutureContended(FiredEvent firedEvent) {
+		eventBus.fireAsyncEventWithoutFuture(firedEvent.event);
+	}
+
+}
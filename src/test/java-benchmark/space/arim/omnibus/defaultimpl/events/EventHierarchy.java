@@ -0,0 +1,94 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.Event;
+
+/**
+ * Event classes forming linear hierarchies, used to vary the depth of the event
+ * class hierarchy across benchmarks. Level 0 is the root of each hierarchy.
+ *
+ */
+public final class EventHierarchy {
+
+	static final int MAX_DEPTH = 4;
+
+	private EventHierarchy() {}
+
+	public static class SyncLevel0 implements Event {
+		int value;
+	}
+	public static class SyncLevel1 extends SyncLevel0 { }
+	public static class SyncLevel2 extends SyncLevel1 { }
+	public static class SyncLevel3 extends SyncLevel2 { }
+	public static class SyncLevel4 extends SyncLevel3 { }
+
+	public static class AsyncLevel0 implements AsyncEvent {
+		int value;
+	}
+	public static class AsyncLevel1 extends AsyncLevel0 { }
+	public static class AsyncLevel2 extends AsyncLevel1 { }
+	public static class AsyncLevel3 extends AsyncLevel2 { }
+	public static class AsyncLevel4 extends AsyncLevel3 { }
+
+	static Class<? extends SyncLevel0> syncLevel(int level) {
+		switch (level) {
+		case 0:
+			return SyncLevel0.class;
+		case 1:
+			return SyncLevel1.class;
+		case 2:
+			return SyncLevel2.class;
+		case 3:
+			return SyncLevel3.class;
+		case 4:
+			return SyncLevel4.class;
+		default:
+			throw new IllegalArgumentException("Level " + level + " exceeds maximum depth " + MAX_DEPTH);
+		}
+	}
+
+	static Class<? extends AsyncLevel0> asyncLevel(int level) {
+		switch (level) {
+		case 0:
+			return AsyncLevel0.class;
+		case 1:
+			return AsyncLevel1.class;
+		case 2:
+			return AsyncLevel2.class;
+		case 3:
+			return AsyncLevel3.class;
+		case 4:
+			return AsyncLevel4.class;
+		default:
+			throw new IllegalArgumentException("Level " + level + " exceeds maximum depth " + MAX_DEPTH);
+		}
+	}
+
+	static <E> E newInstance(Class<E> eventClass) {
+		try {
+			return eventClass.getConstructor().newInstance();
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
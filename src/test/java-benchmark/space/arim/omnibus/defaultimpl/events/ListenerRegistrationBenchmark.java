@@ -0,0 +1,178 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventBusDriver;
+import space.arim.omnibus.events.EventFireController;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.ListeningMethod;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static space.arim.omnibus.defaultimpl.events.EventHierarchy.AsyncLevel0;
+import static space.arim.omnibus.defaultimpl.events.EventHierarchy.SyncLevel0;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListenerRegistrationBenchmark {
+
+	/**
+	 * Amount of listeners already registered to the event class being registered to
+	 */
+	@Param({"0", "100", "1000"})
+	public int existingListeners;
+
+	/**
+	 * Whether listeners for a variety of unrelated event classes are baked
+	 */
+	@Param({"false", "true"})
+	public boolean populateCache;
+
+	private EventBus eventBus;
+	private EventBusDriver driver;
+	private final Consumer<Number> consumer = (number) -> {};
+	private final AnnotatedListener annotatedListener = new AnnotatedListener();
+
+	/**
+	 * Foreign events, which are instances of unrelated JDK classes, used to fill the
+	 * baked listener cache. Half of these are numbers
+	 */
+	private static final Object[] FOREIGN_EVENTS = {
+			1, 1L, (short) 1, (byte) 1, 1D, 1F,
+			BigInteger.ONE, BigDecimal.ONE, new AtomicInteger(), new AtomicLong(),
+			"", new StringBuilder(), new ArrayList<>(), new LinkedList<>(), new HashMap<>(),
+			new TreeMap<>(), new HashSet<>(), new TreeSet<>(), new ArrayDeque<>(), new Object[0]
+	};
+
+	@Setup
+	public void setup() {
+		eventBus = new DefaultEvents();
+		driver = eventBus.getDriver();
+		for (int n = 0; n < existingListeners; n++) {
+			driver.registerListener(Number.class, (byte) n, consumer);
+			eventBus.registerListener(SyncLevel0.class, (byte) n, (event) -> {});
+		}
+		if (populateCache) {
+			for (Object foreignEvent : FOREIGN_EVENTS) {
+				driver.fireEvent(foreignEvent);
+			}
+			eventBus.fireEvent(new SyncLevel0());
+		}
+	}
+
+	@Benchmark
+	public void registerAndUnregister() {
+		RegisteredListener listener = driver.registerListener(Number.class, ListenerPriorities.NORMAL, consumer);
+		eventBus.unregisterListener(listener);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void registerAndUnregisterContended() {
+		RegisteredListener listener = driver.registerListener(Number.class, ListenerPriorities.NORMAL, consumer);
+		eventBus.unregisterListener(listener);
+	}
+
+	@Benchmark
+	public void registerUnregisterAndFire() {
+		RegisteredListener listener = driver.registerListener(Number.class, ListenerPriorities.NORMAL, consumer);
+		eventBus.unregisterListener(listener);
+		// Forces the listeners to be baked again
+		driver.fireEvent(1);
+	}
+
+	@Benchmark
+	public void registerAndUnregisterListeningMethods() {
+		eventBus.registerListeningMethods(annotatedListener);
+		eventBus.unregisterListeningMethods(annotatedListener);
+	}
+
+	/**
+	 * Amount of listeners registered at once by the individual and batched benchmarks
+	 */
+	private static final int BATCH_SIZE = 100;
+
+	@Benchmark
+	public void registerAndUnregisterManyIndividually() {
+		RegisteredListener[] listeners = new RegisteredListener[BATCH_SIZE];
+		for (int n = 0; n < BATCH_SIZE; n++) {
+			listeners[n] = eventBus.registerListener(SyncLevel0.class, (byte) n, (event) -> {});
+		}
+		for (RegisteredListener listener : listeners) {
+			eventBus.unregisterListener(listener);
+		}
+	}
+
+	@Benchmark
+	public void registerAndUnregisterManyBatched() {
+		ListenerBatch batch = eventBus.createListenerBatch();
+		for (int n = 0; n < BATCH_SIZE; n++) {
+			batch.addListener(SyncLevel0.class, (byte) n, (event) -> {});
+		}
+		batch.register();
+		batch.unregister();
+	}
+
+	public static class AnnotatedListener {
+
+		@ListeningMethod
+		public void onSyncEvent(SyncLevel0 event) {
+			event.value++;
+		}
+
+		@ListeningMethod(priority = ListenerPriorities.HIGH)
+		public void onAsyncEvent(AsyncLevel0 event, EventFireController controller) {
+			event.value++;
+			controller.continueFire();
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.ListeningMethod;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static space.arim.omnibus.defaultimpl.events.EventHierarchy.SyncLevel0;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SyncEventFireBenchmark {
+
+	@Param({"0", "1", "10", "100"})
+	public int listenerCount;
+
+	/**
+	 * Listeners are spread evenly across each level of the hierarchy up to this depth.
+	 * The fired event is an instance of the deepest level
+	 */
+	@Param({"0", "4"})
+	public int hierarchyDepth;
+
+	@Param({"false", "true"})
+	public boolean compileListeners;
+
+	/**
+	 * Whether to register listening methods rather than lambdas. Annotated listeners all
+	 * listen to the base of the hierarchy
+	 */
+	@Param({"false", "true"})
+	public boolean annotatedListeners;
+
+	private EventBus eventBus;
+
+	@Setup
+	public void setup() {
+		eventBus = DefaultEvents.builder().compileListeners(compileListeners).build();
+		EventConsumer<SyncLevel0> eventConsumer = (event) -> event.value++;
+		for (int n = 0; n < listenerCount; n++) {
+			if (annotatedListeners) {
+				eventBus.registerListeningMethods(new AnnotatedListener());
+				continue;
+			}
+			eventBus.registerListener(EventHierarchy.syncLevel(n % (hierarchyDepth + 1)), (byte) n, eventConsumer);
+		}
+		// Bake listeners before measurement
+		eventBus.fireEvent(EventHierarchy.newInstance(EventHierarchy.syncLevel(hierarchyDepth)));
+	}
+
+	/**
+	 * The event fired, held per thread to avoid contention on the event itself
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class FiredEvent {
+
+		SyncLevel0 event;
+
+		@Setup
+		public void setup(SyncEventFireBenchmark benchmark) {
+			event = EventHierarchy.newInstance(EventHierarchy.syncLevel(benchmark.hierarchyDepth));
+		}
+	}
+
+	/**
+	 * A burst of events, held per thread
+	 *
+	 */
+	@State(Scope.Thread)
+	public static class FiredEvents {
+
+		static final int BURST_SIZE = 100;
+
+		List<SyncLevel0> events;
+
+		@Setup
+		public void setup(SyncEventFireBenchmark benchmark) {
+			Class<? extends SyncLevel0> eventClass = EventHierarchy.syncLevel(benchmark.hierarchyDepth);
+			SyncLevel0[] events = new SyncLevel0[BURST_SIZE];
+			for (int n = 0; n < events.length; n++) {
+				events[n] = EventHierarchy.newInstance(eventClass);
+			}
+			this.events = List.of(events);
+		}
+	}
+
+	public static class AnnotatedListener {
+
+		@ListeningMethod
+		public void onEvent(SyncLevel0 event) {
+			event.value++;
+		}
+	}
+
+	@Benchmark
+	public void fireEvent(FiredEvent firedEvent) {
+		eventBus.fireEvent(firedEvent.event);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FiredEvents.BURST_SIZE)
+	public void fireEventsIndividually(FiredEvents firedEvents) {
+		for (SyncLevel0 event : firedEvents.events) {
+			eventBus.fireEvent(event);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FiredEvents.BURST_SIZE)
+	public void fireEventsBatched(FiredEvents firedEvents) {
+		eventBus.fireEvents(firedEvents.events);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void fireEventContended(FiredEvent firedEvent) {
+		eventBus.fireEvent(firedEvent.event);
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.registry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.defaultimpl.events.DefaultEvents;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.registry.Registration;
+import space.arim.omnibus.registry.RegistryEvent;
+import space.arim.omnibus.registry.RegistryPriorities;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link FifoEventQueue} with that of the former
+ * {@link SpinningFifoEventQueue} when many threads offer and fire events at once,
+ * as during a registration storm. <br>
+ * <br>
+ * Each invocation runs a whole storm to completion. Were the threads instead to offer
+ * events continually, a draining thread would never return, since it must fire all
+ * events offered while it drains.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FifoEventQueueBenchmark {
+
+	private static final int THREADS = 8;
+	private static final int EVENTS_PER_THREAD = 1000;
+
+	private ExecutorService executor;
+	private EventBus eventBus;
+	private RegistryEvent<?> event;
+
+	@Setup
+	public void setup() {
+		executor = Executors.newFixedThreadPool(THREADS);
+		eventBus = new DefaultEvents();
+		event = new ServiceChangeEventImpl<>(QueuedService.class, null,
+				new Registration<>(RegistryPriorities.NORMAL, new QueuedService() {}, "Benchmark"));
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(THREADS * EVENTS_PER_THREAD)
+	public void offerAndFireCombining() throws InterruptedException {
+		FifoEventQueue eventQueue = new FifoEventQueue();
+		runStorm(() -> {
+			eventQueue.offer(event);
+			eventQueue.fireEvents(eventBus);
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(THREADS * EVENTS_PER_THREAD)
+	public void offerAndFireSpinning() throws InterruptedException {
+		SpinningFifoEventQueue eventQueue = new SpinningFifoEventQueue();
+		runStorm(() -> {
+			eventQueue.offer(event);
+			eventQueue.fireEvents(eventBus);
+		});
+	}
+
+	private void runStorm(Runnable offerAndFire) throws InterruptedException {
+		CountDownLatch startLatch = new CountDownLatch(1);
+		CountDownLatch finishLatch = new CountDownLatch(THREADS);
+		for (int thread = 0; thread < THREADS; thread++) {
+			executor.execute(() -> {
+				try {
+					startLatch.await();
+					for (int n = 0; n < EVENTS_PER_THREAD; n++) {
+						offerAndFire.run();
+					}
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} finally {
+					finishLatch.countDown();
+				}
+			});
+		}
+		startLatch.countDown();
+		finishLatch.await();
+	}
+
+	public interface QueuedService { }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.registry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.defaultimpl.events.DefaultEvents;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.registry.ProviderHandle;
+import space.arim.omnibus.registry.Registration;
+import space.arim.omnibus.registry.RegistrationBatch;
+import space.arim.omnibus.registry.Registry;
+import space.arim.omnibus.registry.RegistryPriorities;
+import space.arim.omnibus.registry.ServiceChangeEvent;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistryBenchmark {
+
+	@Param({"1", "10"})
+	public int existingRegistrations;
+
+	/**
+	 * Whether a listener to registry events is present
+	 */
+	@Param({"false", "true"})
+	public boolean listenToChanges;
+
+	private Registry registry;
+	private ProviderHandle<BenchmarkService> providerHandle;
+	private final BenchmarkService provider = new BenchmarkService() {};
+	private final BenchmarkService[] batchProviders = new BenchmarkService[BATCH_SIZE];
+
+	private static final int BATCH_SIZE = 10;
+
+	@Setup
+	public void setup() {
+		EventBus eventBus = new DefaultEvents();
+		registry = new DefaultRegistry(eventBus);
+		for (int n = 0; n < existingRegistrations; n++) {
+			registry.register(BenchmarkService.class, (byte) n, new BenchmarkService() {}, "Existing " + n);
+		}
+		if (listenToChanges) {
+			@SuppressWarnings("rawtypes")
+			Class<ServiceChangeEvent> eventClass = ServiceChangeEvent.class;
+			eventBus.registerListener(eventClass, ListenerPriorities.NORMAL, (event) -> {});
+		}
+		providerHandle = registry.getProviderHandle(BenchmarkService.class);
+		for (int n = 0; n < BATCH_SIZE; n++) {
+			batchProviders[n] = new BenchmarkService() {};
+		}
+	}
+
+	@Benchmark
+	public Optional<BenchmarkService> getProvider() {
+		return registry.getProvider(BenchmarkService.class);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Optional<BenchmarkService> getProviderContended() {
+		return registry.getProvider(BenchmarkService.class);
+	}
+
+	@Benchmark
+	public BenchmarkService getProviderFromHandle() {
+		return providerHandle.get();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public BenchmarkService getProviderFromHandleContended() {
+		return providerHandle.get();
+	}
+
+	@Benchmark
+	public Optional<Registration<BenchmarkService>> registerAndUnregister() {
+		Registration<BenchmarkService> registration = registry.register(
+				BenchmarkService.class, RegistryPriorities.HIGHEST, provider, "Benchmark");
+		return registry.unregister(BenchmarkService.class, registration);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void registerAndUnregisterIndividually() {
+		@SuppressWarnings("unchecked")
+		Registration<BenchmarkService>[] registrations = new Registration[BATCH_SIZE];
+		for (int n = 0; n < BATCH_SIZE; n++) {
+			registrations[n] = registry.register(
+					BenchmarkService.class, (byte) (RegistryPriorities.HIGH + n), batchProviders[n], "Benchmark");
+		}
+		for (Registration<BenchmarkService> registration : registrations) {
+			registry.unregister(BenchmarkService.class, registration);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void registerAndUnregisterBatched() {
+		RegistrationBatch registerBatch = registry.createRegistrationBatch();
+		RegistrationBatch unregisterBatch = registry.createRegistrationBatch();
+		for (int n = 0; n < BATCH_SIZE; n++) {
+			Registration<BenchmarkService> registration = registerBatch.addRegistration(
+					BenchmarkService.class, (byte) (RegistryPriorities.HIGH + n), batchProviders[n], "Benchmark");
+			unregisterBatch.addUnregistration(BenchmarkService.class, registration);
+		}
+		registerBatch.apply();
+		unregisterBatch.apply();
+	}
+
+	public interface BenchmarkService { }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.registry;
+
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.registry.RegistryEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The former implementation of {@link FifoEventQueue}, in which a contending thread
+ * spins while the lock holder polls the queue. Kept for comparison in {@link FifoEventQueueBenchmark}
+ *
+ */
+class SpinningFifoEventQueue {
+
+	private final Queue<RegistryEvent<?>> queue = new ConcurrentLinkedQueue<>();
+	private volatile int queueState;
+	private static final VarHandle QUEUE_STATE;
+
+	private static final int UNHELD = 0;
+	private static final int TRANSPOSING = 1;
+	private static final int FIRING = 2;
+
+	static {
+		try {
+			QUEUE_STATE = MethodHandles.lookup().findVarHandle(SpinningFifoEventQueue.class, "queueState", int.class);
+		} catch (NoSuchFieldException | IllegalAccessException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	void offer(RegistryEvent<?> event) {
+		queue.offer(event);
+	}
+
+	void fireEvents(EventBus eventBus) {
+		spinLoop:
+		while (true) {
+			int witnessValue = (int) QUEUE_STATE.compareAndExchange(this, UNHELD, TRANSPOSING);
+			switch (witnessValue) {
+			case UNHELD:
+				break spinLoop;
+			case TRANSPOSING:
+				Thread.onSpinWait();
+				continue spinLoop;
+			case FIRING:
+				return;
+			default:
+				throw new IllegalStateException("Unknown state " + witnessValue);
+			}
+		}
+		RegistryEvent<?> event;
+		while ((event = queue.poll()) != null) {
+			queueState = FIRING;
+			eventBus.fireAsyncEventWithoutFuture(event);
+			queueState = TRANSPOSING;
+		}
+		queueState = UNHELD;
+	}
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.util.concurrent.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import space.arim.omnibus.util.concurrent.CentralisedFuture;
+import space.arim.omnibus.util.concurrent.FactoryOfTheFuture;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FutureChainBenchmark {
+
+	@Param({"1", "10"})
+	public int chainLength;
+
+	private final FactoryOfTheFuture futuresFactory = new IndifferentFactoryOfTheFuture();
+
+	private static CentralisedFuture<Integer> chain(CentralisedFuture<Integer> future, int chainLength) {
+		for (int n = 0; n < chainLength; n++) {
+			future = future.thenApply((value) -> value + 1);
+		}
+		return future;
+	}
+
+	@Benchmark
+	public Integer completedFutureChain() {
+		return chain(futuresFactory.completedFuture(0), chainLength).join();
+	}
+
+	@Benchmark
+	public Integer incompleteFutureChain() {
+		CentralisedFuture<Integer> future = futuresFactory.newIncompleteFuture();
+		CentralisedFuture<Integer> chained = chain(future, chainLength);
+		future.complete(0);
+		return chained.join();
+	}
+
+	@Benchmark
+	public Integer supplyAsyncChain() {
+		return chain(futuresFactory.supplyAsync(() -> 0), chainLength).join();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Integer supplyAsyncChainContended() {
+		return chain(futuresFactory.supplyAsync(() -> 0), chainLength).join();
+	}
+
+	@Benchmark
+	public Integer baseFutureSyncChain() {
+		CentralisedFuture<Integer> future = new BaseCentralisedFuture<>(Runnable::run);
+		CentralisedFuture<Integer> chained = future;
+		for (int n = 0; n < chainLength; n++) {
+			chained = chained.thenApplySync((value) -> value + 1);
+		}
+		future.complete(0);
+		return chained.join();
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.RepeatedTest;
+import space.arim.omnibus.defaultimpl.registry.ParallelStresser;
+import space.arim.omnibus.defaultimpl.registry.RunInstruction;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BakedListenerEvictionIT {
+
+	private static final int ITERATIONS = 1000;
+	private static final int CYCLES = 1000;
+
+	private final ParallelStresser stresser = new ParallelStresser();
+
+	@RepeatedTest(ITERATIONS)
+	public void unregisterDuringBaking() {
+		EventBus eventBus = new DefaultEvents();
+		AtomicInteger calls = new AtomicInteger();
+		EventConsumer<ShellEvent> listener = (event) -> calls.incrementAndGet();
+		AtomicBoolean done = new AtomicBoolean();
+		RegisteredListener[] registered = {eventBus.registerListener(ShellEvent.class, ListenerPriorities.NORMAL, listener)};
+		stresser.runAll(
+				new RunInstruction(() -> {}, () -> {
+					while (!done.get()) {
+						eventBus.fireEvent(new ShellEvent());
+					}
+				}),
+				new RunInstruction(() -> {}, () -> {
+					// Each unregistration evicts the group, possibly while a fire is baking it
+					for (int n = 0; n < CYCLES; n++) {
+						eventBus.unregisterListener(registered[0]);
+						registered[0] = eventBus.registerListener(ShellEvent.class, ListenerPriorities.NORMAL, listener);
+					}
+					done.set(true);
+				}));
+		calls.set(0);
+		eventBus.fireEvent(new ShellEvent());
+		assertEquals(1, calls.get(), "Registered listener was not called");
+	}
+
+	public static class ShellEvent implements Event { }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.RepeatedTest;
+import space.arim.omnibus.defaultimpl.registry.ParallelStresser;
+import space.arim.omnibus.defaultimpl.registry.RunInstruction;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListeningMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ListenerBatchIT {
+
+	private static final int ITERATIONS = 1000;
+
+	private final ParallelStresser stresser = new ParallelStresser();
+
+	@RepeatedTest(ITERATIONS)
+	public void unregisterDuringBatchRegistration() {
+		EventBus eventBus = new DefaultEvents();
+		AnnotatedListener listener = new AnnotatedListener();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListeningMethods(listener);
+		// Plenty of other listeners widen the window for a race
+		for (int n = 0; n < 1000; n++) {
+			batch.addListener(OtherEvent.class, (byte) n, (event) -> {});
+		}
+		stresser.runAll(
+				new RunInstruction(() -> {}, batch::register),
+				new RunInstruction(() -> {}, () -> eventBus.unregisterListeningMethods(listener)));
+		// Whichever ran first, the listener object is either unregistered or can be
+		eventBus.unregisterListeningMethods(listener);
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(ShellEvent.class));
+	}
+
+	public static class ShellEvent implements Event { }
+
+	public static class OtherEvent implements Event { }
+
+	public static class AnnotatedListener {
+
+		@ListeningMethod
+		public void onEvent(ShellEvent event) { }
+	}
+}
@@ -21,8 +21,12 @@ package space.arim.omnibus.defaultimpl.registry;
 
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import space.arim.omnibus.events.Event;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -30,10 +34,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FifoEventQueueIT {
 
 	private static final int ITERATIONS = 3000;
+	private static final int STORM_THREADS = 8;
+	private static final int STORM_EVENTS_PER_THREAD = 20_000;
 
 	private final FifoEventQueue eventQueue = new FifoEventQueue();
 	private final ParallelStresser stresser = new ParallelStresser();
@@ -130,4 +137,40 @@ public class FifoEventQueueIT {
 		assertEquals(eventBus.events(), List.of(event1, event2));
 	}
 
+	@Test
+	public void dispatchEventsInOrderPerThread() {
+		TestingEventBus eventBus = new TestingEventBus();
+		ShellEvent[][] events = new ShellEvent[STORM_THREADS][STORM_EVENTS_PER_THREAD];
+		RunInstruction[] instructions = new RunInstruction[STORM_THREADS];
+		for (int thread = 0; thread < STORM_THREADS; thread++) {
+			ShellEvent[] threadEvents = events[thread];
+			for (int n = 0; n < STORM_EVENTS_PER_THREAD; n++) {
+				threadEvents[n] = new ShellEvent();
+			}
+			instructions[thread] = new RunInstruction(() -> {
+				for (ShellEvent event : threadEvents) {
+					eventQueue.offer(event);
+					eventQueue.fireEvents(eventBus);
+				}
+			});
+		}
+		stresser.runAll(instructions[0], Arrays.copyOfRange(instructions, 1, STORM_THREADS));
+
+		List<Event> delivered = eventBus.events();
+		assertEquals(STORM_THREADS * STORM_EVENTS_PER_THREAD, delivered.size());
+		Map<Event, Integer> positions = new IdentityHashMap<>(delivered.size());
+		for (int position = 0; position < delivered.size(); position++) {
+			positions.put(delivered.get(position), position);
+		}
+		// Each thread's events are delivered in the order the thread offered them
+		for (ShellEvent[] threadEvents : events) {
+			int previousPosition = -1;
+			for (ShellEvent event : threadEvents) {
+				Integer position = positions.get(event);
+				assertTrue(position != null && position > previousPosition, "Out of order: " + event);
+				previousPosition = position;
+			}
+		}
+	}
+
 }
@@ -67,6 +67,11 @@ class TestingEventBus implements EventBus {
 		events.add(event);
 	}
 
+	@Override
+	public boolean hasListeners(Class<? extends Event> eventClass) {
+		return true;
+	}
+
 	@Override
 	public <E extends AsyncEvent> CompletableFuture<E> fireAsyncEvent(E event) {
 		eventListener.accept(event);
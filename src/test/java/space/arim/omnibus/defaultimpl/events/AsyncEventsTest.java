@@ -19,15 +19,24 @@
 package space.arim.omnibus.defaultimpl.events;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListenerPriorities;
 
 @ExtendWith(DefaultEventsExtension.class)
 public class AsyncEventsTest {
@@ -60,5 +69,79 @@ public class AsyncEventsTest {
 
 		executor.shutdown();
 	}
-	
+
+	@Test
+	public void onlySynchronousListeners(EventBus eventBus) {
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) -10, (te) -> {
+			te.someValue += 1;
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, (te) -> {
+			te.someValue *= 10;
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(1);
+		CompletableFuture<AsyncTestEventWithInteger> future = eventBus.fireAsyncEvent(te);
+		assertTrue(future.isDone());
+		assertSame(te, future.join());
+		assertEquals(20, te.someValue);
+
+		eventBus.fireAsyncEventWithoutFuture(te);
+		assertEquals(210, te.someValue);
+	}
+
+	@Test
+	public void synchronousContinuationDoesNotGrowStack(EventBus eventBus) {
+		int listenerCount = 100_000;
+		ListenerBatch batch = eventBus.createListenerBatch();
+		for (int n = 0; n < listenerCount; n++) {
+			batch.addListener(AsyncTestEventWithInteger.class, ListenerPriorities.NORMAL, (te, controller) -> {
+				te.someValue++;
+				controller.continueFire();
+			});
+		}
+		batch.register();
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(0);
+		fireAndWait(eventBus, te);
+		assertEquals(listenerCount, te.someValue);
+	}
+
+	@Test
+	public void continueTwice(EventBus eventBus) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) -5, (te, controller) -> {
+			controller.continueFire();
+			failures.add(assertThrows(IllegalStateException.class, controller::continueFire));
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, (te, controller) -> {
+			executor.execute(() -> {
+				te.someValue++;
+				controller.continueFire();
+				failures.add(assertThrows(IllegalStateException.class, controller::continueFire));
+			});
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(0);
+		fireAndWait(eventBus, te);
+		assertEquals(1, te.someValue);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5L, TimeUnit.SECONDS));
+		assertEquals(2, failures.size());
+	}
+
+	@Test
+	public void exceptionAfterContinuing(EventBus eventBus) {
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) -5, (te, controller) -> {
+			controller.continueFire();
+			throw new RuntimeException("Expected exception");
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, (te, controller) -> {
+			throw new RuntimeException("Expected exception");
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 5, (te) -> {
+			te.someValue++;
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(0);
+		fireAndWait(eventBus, te);
+		assertEquals(1, te.someValue, "Later listeners should be called exactly once");
+	}
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.events.BatchEventConsumer;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerPriorities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class BatchFireTest {
+
+	@Test
+	public void fireEvents(EventBus eventBus) {
+		List<String> invocations = new ArrayList<>();
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.LOW, (te) -> {
+			invocations.add("low-" + te.someValue);
+			te.someValue *= 10;
+		});
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.HIGH, (te) -> {
+			invocations.add("high-" + te.someValue);
+		});
+		eventBus.fireEvents(List.of(new TestEventWithInteger(1), new TestEventWithInteger(2)));
+		assertEquals(List.of("low-1", "low-2", "high-10", "high-20"), invocations);
+	}
+
+	@Test
+	public void batchEventConsumer(EventBus eventBus) {
+		List<List<? extends Event>> batches = new ArrayList<>();
+		BatchEventConsumer<Event> batchEventConsumer = batches::add;
+		eventBus.registerListener(Event.class, ListenerPriorities.NORMAL, batchEventConsumer);
+
+		TestEventWithInteger first = new TestEventWithInteger(1);
+		TestEventWithInteger second = new TestEventWithInteger(2);
+		TestEventWithString third = new TestEventWithString("");
+		eventBus.fireEvents(List.of(first, second, third));
+		assertEquals(List.of(List.of(first, second), List.of(third)), batches);
+		assertThrows(UnsupportedOperationException.class, () -> batches.get(0).clear());
+
+		batches.clear();
+		eventBus.fireEvent(first);
+		assertEquals(List.of(List.of(first)), batches);
+	}
+
+	@Test
+	public void rejectAsyncEvents(EventBus eventBus) {
+		List<Event> events = new ArrayList<>();
+		eventBus.registerListener(Event.class, ListenerPriorities.NORMAL, events::add);
+		assertThrows(IllegalArgumentException.class, () -> eventBus.fireEvents(
+				List.of(new TestEventWithInteger(1), new AsyncTestEventWithInteger(1))));
+		assertEquals(List.of(), events, "No events should be fired");
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import space.arim.omnibus.events.AsyncEvent;
+import space.arim.omnibus.events.Cancellable;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventFireController;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.ListeningMethod;
+import space.arim.omnibus.events.ParallelAsyncEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class CancellableEventsTest {
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void skipCancelled(boolean compileListeners) {
+		EventBus eventBus = DefaultEvents.builder().compileListeners(compileListeners).build();
+		List<String> invocations = new ArrayList<>();
+		eventBus.registerListener(CancellableEvent.class, ListenerPriorities.LOW, true, (event) -> {
+			invocations.add("low");
+			event.cancel();
+		});
+		eventBus.registerListener(CancellableEvent.class, ListenerPriorities.NORMAL, true, (event) -> {
+			invocations.add("normal-ignoring");
+		});
+		eventBus.registerListener(CancellableEvent.class, ListenerPriorities.HIGH, (event) -> {
+			invocations.add("high");
+		});
+		eventBus.fireEvent(new CancellableEvent());
+		assertEquals(List.of("low", "high"), invocations);
+		invocations.clear();
+
+		CancellableEvent cancelledEvent = new CancellableEvent();
+		cancelledEvent.cancel();
+		eventBus.fireEvent(cancelledEvent);
+		assertEquals(List.of("high"), invocations);
+	}
+
+	@Test
+	public void listeningMethods(EventBus eventBus) {
+		var listener = new AnnotatedListener();
+		eventBus.registerListeningMethods(listener);
+		eventBus.fireEvent(new CancellableEvent());
+		assertEquals(List.of("cancelling"), listener.invocations);
+	}
+
+	@Test
+	public void batchFire(EventBus eventBus) {
+		List<CancellableEvent> received = new ArrayList<>();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(CancellableEvent.class, ListenerPriorities.NORMAL, true, received::add);
+		batch.register();
+		CancellableEvent event1 = new CancellableEvent();
+		CancellableEvent event2 = new CancellableEvent();
+		event2.cancel();
+		CancellableEvent event3 = new CancellableEvent();
+		eventBus.fireEvents(List.of(event1, event2, event3));
+		assertEquals(List.of(event1, event3), received);
+	}
+
+	@Test
+	public void asyncListeners(EventBus eventBus) {
+		var listener = new AsyncAnnotatedListener();
+		eventBus.registerListeningMethods(listener);
+		fireAndWait(eventBus, new AsyncCancellableEvent());
+		assertEquals(List.of("cancel", "observe"), listener.invocations);
+	}
+
+	@Test
+	public void parallelListeners(EventBus eventBus) {
+		List<String> invocations = new CopyOnWriteArrayList<>();
+		eventBus.registerListener(ParallelCancellableEvent.class, ListenerPriorities.LOW, (event) -> {
+			event.cancel();
+		});
+		eventBus.registerListener(ParallelCancellableEvent.class, ListenerPriorities.NORMAL, true, (event) -> {
+			invocations.add("ignoring");
+		});
+		eventBus.registerListener(ParallelCancellableEvent.class, ListenerPriorities.HIGH, (event) -> {
+			invocations.add("observe");
+		});
+		fireAndWait(eventBus, new ParallelCancellableEvent());
+		assertEquals(List.of("observe"), invocations);
+	}
+
+	public static class AnnotatedListener {
+
+		final List<String> invocations = new ArrayList<>();
+
+		@ListeningMethod(priority = ListenerPriorities.LOW)
+		public void cancel(CancellableEvent event) {
+			invocations.add("cancelling");
+			event.cancel();
+		}
+
+		@ListeningMethod(priority = ListenerPriorities.HIGH, ignoreCancelled = true)
+		public void ignoreCancelled(CancellableEvent event) {
+			invocations.add("ignoring");
+		}
+	}
+
+	public static class AsyncAnnotatedListener {
+
+		final List<String> invocations = new CopyOnWriteArrayList<>();
+
+		@ListeningMethod(priority = ListenerPriorities.LOW)
+		public void cancel(AsyncCancellableEvent event, EventFireController controller) {
+			invocations.add("cancel");
+			event.cancel();
+			controller.continueFire();
+		}
+
+		@ListeningMethod(priority = ListenerPriorities.NORMAL, ignoreCancelled = true)
+		public void ignoreCancelled(AsyncCancellableEvent event, EventFireController controller) {
+			invocations.add("ignoring");
+			controller.continueFire();
+		}
+
+		@ListeningMethod(priority = ListenerPriorities.HIGH)
+		public void observe(AsyncCancellableEvent event, EventFireController controller) {
+			invocations.add("observe");
+			controller.continueFire();
+		}
+	}
+
+	public static class CancellableEvent implements Cancellable {
+
+		private volatile boolean cancelled;
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	public static class AsyncCancellableEvent extends CancellableEvent implements AsyncEvent { }
+
+	public static class ParallelCancellableEvent extends CancellableEvent implements ParallelAsyncEvent { }
+}
@@ -0,0 +1,99 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CompiledListenersTest {
+
+	private final EventBus eventBus = DefaultEvents.builder().compileListeners(true).build();
+
+	@Test
+	public void maintainOrder() {
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.HIGH,
+				(te) -> te.someValue = te.someValue * 2);
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL,
+				(te) -> te.someValue = te.someValue + 1);
+		TestEventWithInteger te = new TestEventWithInteger(0);
+		eventBus.fireEvent(te);
+		assertEquals(2, te.someValue, "(0 + 1) * 2 = 2");
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 2, 3, 100})
+	public void manyListeners(int listenerCount) {
+		List<Integer> invocations = new ArrayList<>();
+		for (int n = 0; n < listenerCount; n++) {
+			int priority = n;
+			eventBus.registerListener(TestEventWithInteger.class, (byte) priority, (te) -> invocations.add(priority));
+		}
+		eventBus.fireEvent(new TestEventWithInteger(0));
+		List<Integer> expected = new ArrayList<>();
+		for (int n = 0; n < listenerCount; n++) {
+			expected.add(n);
+		}
+		assertEquals(expected, invocations);
+	}
+
+	@Test
+	public void isolateExceptions() {
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.LOW, (te) -> {
+			throw new IllegalStateException("Expected exception");
+		});
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.HIGH, (te) -> te.someValue++);
+		TestEventWithInteger te = new TestEventWithInteger(0);
+		eventBus.fireEvent(te);
+		assertEquals(1, te.someValue);
+	}
+
+	@Test
+	public void annotatedListeners() {
+		eventBus.registerListeningMethods(new ListeningMethodsTest.AnnotatedListener());
+
+		int startValue = ThreadLocalRandom.current().nextInt();
+		TestEventWithInteger te = new TestEventWithInteger(startValue);
+		eventBus.fireEvent(te);
+		assertEquals(((startValue + 1) * 10) - 3, te.someValue);
+	}
+
+	@Test
+	public void recompileOnChange() {
+		RegisteredListener listener = eventBus.registerListener(
+				TestEventWithInteger.class, ListenerPriorities.NORMAL, (te) -> te.someValue++);
+		TestEventWithInteger te = new TestEventWithInteger(0);
+		eventBus.fireEvent(te);
+		assertEquals(1, te.someValue);
+
+		eventBus.unregisterListener(listener);
+		eventBus.fireEvent(te);
+		assertEquals(1, te.someValue);
+	}
+}
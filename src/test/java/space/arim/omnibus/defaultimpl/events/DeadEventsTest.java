@@ -0,0 +1,99 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class DeadEventsTest {
+
+	@Test
+	public void hasListeners(EventBus eventBus) {
+		assertFalse(eventBus.hasListeners(TestEventWithInteger.class));
+		RegisteredListener listener = eventBus.registerListener(
+				TestEventWithInteger.class, ListenerPriorities.NORMAL, (te) -> {});
+		assertTrue(eventBus.hasListeners(TestEventWithInteger.class));
+		eventBus.unregisterListener(listener);
+		assertFalse(eventBus.hasListeners(TestEventWithInteger.class));
+	}
+
+	@Test
+	public void suppliedEventNotConstructed() {
+		EventBus eventBus = DefaultEvents.builder().countDeadEvents(true).build();
+		eventBus.fireEvent(TestEventWithInteger.class, () -> fail("Event constructed without listeners"));
+		assertEquals(1L, eventBus.getDriver().getDeadEventCount());
+	}
+
+	@Test
+	public void suppliedEventFired() {
+		EventBus eventBus = DefaultEvents.builder().countDeadEvents(true).build();
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL, (te) -> te.someValue++);
+		var event = new TestEventWithInteger(1);
+		eventBus.fireEvent(TestEventWithInteger.class, () -> event);
+		assertEquals(2, event.someValue);
+		assertEquals(0L, eventBus.getDriver().getDeadEventCount());
+	}
+
+	@Test
+	public void suppliedAsyncEvent(EventBus eventBus) {
+		assertThrows(IllegalArgumentException.class,
+				() -> eventBus.fireEvent(AsyncTestEventWithInteger.class, () -> new AsyncTestEventWithInteger(1)));
+	}
+
+	@Test
+	public void deadEventHandler() {
+		List<Object> deadEvents = new ArrayList<>();
+		EventBus eventBus = DefaultEvents.builder().deadEventHandler(deadEvents::add).countDeadEvents(true).build();
+		eventBus.registerListener(TestEventWithString.class, ListenerPriorities.NORMAL, (te) -> {});
+
+		var event = new TestEventWithInteger(1);
+		eventBus.fireEvent(event);
+		eventBus.fireEvent(new TestEventWithString("listened"));
+		var suppliedEvent = new TestEventWithInteger(2);
+		eventBus.fireEvent(TestEventWithInteger.class, () -> suppliedEvent);
+		var batchedEvent = new TestEventWithInteger(3);
+		eventBus.fireEvents(List.of(batchedEvent, new TestEventWithString("listened")));
+		var asyncEvent = new AsyncTestEventWithInteger(4);
+		fireAndWait(eventBus, asyncEvent);
+
+		assertEquals(List.of(event, suppliedEvent, batchedEvent, asyncEvent), deadEvents);
+		assertEquals(4L, eventBus.getDriver().getDeadEventCount());
+	}
+
+	@Test
+	public void deadEventsNotCounted(EventBus eventBus) {
+		eventBus.fireEvent(new TestEventWithInteger(1));
+		assertEquals(0L, eventBus.getDriver().getDeadEventCount());
+	}
+}
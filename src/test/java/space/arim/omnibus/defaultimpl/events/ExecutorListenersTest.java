@@ -0,0 +1,143 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.events.EventBus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class ExecutorListenersTest {
+
+	private ExecutorService executorService;
+
+	@BeforeEach
+	public void setExecutorService() {
+		executorService = Executors.newSingleThreadExecutor((r) -> new Thread(r, "executor-listener"));
+	}
+
+	@AfterEach
+	public void shutdownExecutorService() {
+		executorService.shutdown();
+	}
+
+	@Test
+	public void executorListeners(EventBus eventBus) {
+		List<String> threads = new CopyOnWriteArrayList<>();
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) -10, (te) -> {
+			te.someValue += 1;
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) -5, executorService, (te) -> {
+			threads.add(Thread.currentThread().getName());
+			te.someValue *= 10;
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, (te) -> {
+			te.someValue -= 3;
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(1);
+		fireAndWait(eventBus, te);
+		assertEquals(17, te.someValue);
+		assertEquals(List.of("executor-listener"), threads);
+	}
+
+	@Test
+	public void coalesceConsecutiveListeners(EventBus eventBus) {
+		CountingExecutor first = new CountingExecutor(executorService);
+		CountingExecutor second = new CountingExecutor(executorService);
+		List<Integer> invocations = new CopyOnWriteArrayList<>();
+		for (int n = 0; n < 3; n++) {
+			int invocation = n;
+			eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) n, first, (te) -> {
+				invocations.add(invocation);
+			});
+		}
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 3, second, (te) -> {
+			invocations.add(3);
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 4, first, (te) -> {
+			invocations.add(4);
+		});
+		fireAndWait(eventBus, new AsyncTestEventWithInteger(0));
+		assertEquals(List.of(0, 1, 2, 3, 4), invocations);
+		assertEquals(2, first.executions.get());
+		assertEquals(1, second.executions.get());
+	}
+
+	@Test
+	public void directExecutor(EventBus eventBus) {
+		Executor directExecutor = Runnable::run;
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, directExecutor, (te) -> {
+			te.someValue += 1;
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 5, (te, controller) -> {
+			te.someValue *= 10;
+			controller.continueFire();
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(1);
+		fireAndWait(eventBus, te);
+		assertEquals(20, te.someValue);
+	}
+
+	@Test
+	public void rejectedExecution(EventBus eventBus) {
+		Executor rejectingExecutor = (command) -> {
+			throw new RejectedExecutionException("Expected exception");
+		};
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 0, rejectingExecutor, (te) -> {
+			te.someValue += 1;
+		});
+		eventBus.registerListener(AsyncTestEventWithInteger.class, (byte) 5, (te) -> {
+			te.someValue *= 10;
+		});
+		AsyncTestEventWithInteger te = new AsyncTestEventWithInteger(1);
+		fireAndWait(eventBus, te);
+		assertEquals(10, te.someValue, "Rejected listeners should be skipped");
+	}
+
+	private static final class CountingExecutor implements Executor {
+
+		private final Executor delegate;
+		final AtomicInteger executions = new AtomicInteger();
+
+		CountingExecutor(Executor delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			executions.incrementAndGet();
+			delegate.execute(command);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class FilteredListenersTest {
+
+	@Test
+	public void typeFilterExcludesWhenBaking(EventBus eventBus) {
+		eventBus.fireEvent(new NoisyEvent()); // The event fire causes some caching
+		List<Event> received = new ArrayList<>();
+		eventBus.registerListener(BaseEvent.class, ListenerPriorities.NORMAL,
+				(type) -> type != NoisyEvent.class, (event) -> true, received::add);
+		eventBus.registerListener(BaseEvent.class, ListenerPriorities.HIGH, (event) -> {});
+
+		assertEquals(1, eventBus.getDriver().getRegisteredListenerCount(NoisyEvent.class));
+		assertEquals(2, eventBus.getDriver().getRegisteredListenerCount(QuietEvent.class));
+		var quietEvent = new QuietEvent();
+		eventBus.fireEvent(new NoisyEvent());
+		eventBus.fireEvent(quietEvent);
+		assertEquals(List.of(quietEvent), received);
+	}
+
+	@Test
+	public void typeFilterInBatch(EventBus eventBus) {
+		eventBus.fireEvent(new NoisyEvent()); // The event fire causes some caching
+		List<Event> received = new ArrayList<>();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(BaseEvent.class, ListenerPriorities.NORMAL,
+				(type) -> type == QuietEvent.class, (event) -> true, received::add);
+		batch.register();
+
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(NoisyEvent.class));
+		assertEquals(1, eventBus.getDriver().getRegisteredListenerCount(QuietEvent.class));
+		batch.unregister();
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(QuietEvent.class));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void eventFilter(boolean compileListeners) {
+		EventBus eventBus = DefaultEvents.builder().compileListeners(compileListeners).build();
+		List<Integer> received = new ArrayList<>();
+		RegisteredListener listener = eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL,
+				(type) -> true, (event) -> event.someValue % 2 == 0, (event) -> received.add(event.someValue));
+		for (int n = 0; n < 5; n++) {
+			eventBus.fireEvent(new TestEventWithInteger(n));
+		}
+		assertEquals(List.of(0, 2, 4), received);
+		eventBus.unregisterListener(listener);
+		eventBus.fireEvent(new TestEventWithInteger(6));
+		assertEquals(List.of(0, 2, 4), received);
+	}
+
+	@Test
+	public void eventFilterException(EventBus eventBus) {
+		List<Integer> received = new ArrayList<>();
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.LOW,
+				(type) -> true, (event) -> {
+					throw new IllegalStateException("Expected exception");
+				}, (event) -> received.add(-1));
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.HIGH,
+				(event) -> received.add(event.someValue));
+		eventBus.fireEvent(new TestEventWithInteger(1));
+		assertEquals(List.of(1), received);
+	}
+
+	@Test
+	public void eventFilterWithBatchFire(EventBus eventBus) {
+		List<Integer> received = new ArrayList<>();
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL,
+				(type) -> true, (event) -> event.someValue > 1, (event) -> received.add(event.someValue));
+		eventBus.fireEvents(List.of(new TestEventWithInteger(1), new TestEventWithInteger(2), new TestEventWithInteger(3)));
+		assertEquals(List.of(2, 3), received);
+	}
+
+	public static class BaseEvent implements Event { }
+
+	public static class NoisyEvent extends BaseEvent { }
+
+	public static class QuietEvent extends BaseEvent { }
+}
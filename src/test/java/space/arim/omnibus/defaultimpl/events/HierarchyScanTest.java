@@ -21,15 +21,18 @@ package space.arim.omnibus.defaultimpl.events;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class HierarchyScanTest {
 
 	private Set<Class<?>> scan(Class<?> subject) {
-		return new HierarchyScan(subject).scan();
+		return Set.of(new HierarchyScan(subject).scan());
 	}
+
 	@Test
 	public void scanSingleClass() {
 		assertEquals(Set.of(HierarchyScanTest.class), scan(HierarchyScanTest.class));
@@ -62,4 +65,29 @@ public class HierarchyScanTest {
 	public interface IFaceTwo extends IFaceOne { }
 
 	public static class PlusIFaces extends DoubleExtends implements IFaceTwo { }
+
+	@Test
+	public void scanInterfaceSubject() {
+		assertEquals(Set.of(IFaceOne.class, IFaceTwo.class), scan(IFaceTwo.class));
+	}
+
+	@Test
+	public void scanOrderDeterministic() {
+		assertEquals(
+				List.of(SharedIFaces.class, IFaceTwo.class, IFaceOne.class, IFaceThree.class,
+						PlusIFaces.class, DoubleExtends.class, SingleExtends.class, HierarchyScanTest.class),
+				List.of(new HierarchyScan(SharedIFaces.class).scan()));
+	}
+
+	public interface IFaceThree extends IFaceOne { }
+
+	public static class SharedIFaces extends PlusIFaces implements IFaceTwo, IFaceThree { }
+
+	@Test
+	public void hierarchyCached() {
+		assertSame(HierarchyScan.hierarchyOf(SharedIFaces.class), HierarchyScan.hierarchyOf(SharedIFaces.class));
+		assertEquals(
+				List.of(new HierarchyScan(SharedIFaces.class).scan()),
+				List.of(HierarchyScan.hierarchyOf(SharedIFaces.class)));
+	}
 }
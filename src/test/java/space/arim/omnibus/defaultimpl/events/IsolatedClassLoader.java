@@ -0,0 +1,72 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Child class loader which defines the specified classes itself, as a plugin class
+ * loader would, and delegates all other classes to its parent
+ *
+ */
+public class IsolatedClassLoader extends ClassLoader {
+
+	private final Set<String> isolatedClassNames;
+
+	public IsolatedClassLoader(Class<?>...isolatedClasses) {
+		super(IsolatedClassLoader.class.getClassLoader());
+		isolatedClassNames = Set.of(Arrays.stream(isolatedClasses).map(Class::getName).toArray(String[]::new));
+	}
+
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		if (!isolatedClassNames.contains(name)) {
+			return super.loadClass(name, resolve);
+		}
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> loaded = findLoadedClass(name);
+			if (loaded == null) {
+				loaded = findClass(name);
+			}
+			if (resolve) {
+				resolveClass(loaded);
+			}
+			return loaded;
+		}
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		String resourceName = name.replace('.', '/') + ".class";
+		try (InputStream classFile = getParent().getResourceAsStream(resourceName)) {
+			if (classFile == null) {
+				throw new ClassNotFoundException(name);
+			}
+			byte[] bytes = classFile.readAllBytes();
+			return defineClass(name, bytes, 0, bytes.length);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
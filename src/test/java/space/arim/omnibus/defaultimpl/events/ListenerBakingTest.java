@@ -23,9 +23,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import space.arim.omnibus.events.Event;
 import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerBatch;
 import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @ExtendWith(DefaultEventsExtension.class)
 public class ListenerBakingTest {
@@ -45,6 +53,197 @@ public class ListenerBakingTest {
 		assertEquals(event.value, 2);
 	}
 
+	@Test
+	public void patchBakedOnUnregister(EventBus eventBus) {
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			mainEvent.value++;
+		});
+		RegisteredListener superListener = eventBus.registerListener(
+				SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			superEvent.value++;
+		});
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		eventBus.unregisterListener(superListener);
+
+		var event = new MainEvent();
+		eventBus.fireEvent(event);
+		assertEquals(event.value, 1);
+		assertEquals(1, eventBus.getDriver().getRegisteredListenerCount(MainEvent.class));
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(SuperEvent.class));
+	}
+
+	@Test
+	public void patchBakedMaintainsOrder(EventBus eventBus) {
+		List<String> invocations = new ArrayList<>();
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("main-normal");
+		});
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		eventBus.fireEvent(new SuperEvent());
+		invocations.clear();
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.HIGH, (superEvent) -> {
+			invocations.add("super-high");
+		});
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.LOW, (superEvent) -> {
+			invocations.add("super-low");
+		});
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.HIGHEST, (mainEvent) -> {
+			invocations.add("main-highest");
+		});
+
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("super-low", "main-normal", "super-high", "main-highest"), invocations);
+		invocations.clear();
+		eventBus.fireEvent(new SuperEvent());
+		assertEquals(List.of("super-low", "super-high"), invocations);
+	}
+
+	@Test
+	public void samePriorityInRegistrationOrder(EventBus eventBus) {
+		List<String> invocations = new ArrayList<>();
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("main-1");
+		});
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			invocations.add("super-2");
+		});
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		invocations.clear();
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("main-3");
+		});
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			invocations.add("super-4");
+		});
+
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("main-1", "super-2", "main-3", "super-4"), invocations);
+	}
+
+	@Test
+	public void samePriorityInLatestRegistrationOrder(EventBus eventBus) {
+		List<String> invocations = new ArrayList<>();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("batch");
+		});
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("first");
+		});
+		// The batch listener was created first, but is registered afterward
+		batch.register();
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("first", "batch"), invocations);
+		invocations.clear();
+
+		batch.unregister();
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("second");
+		});
+		batch.register();
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("first", "second", "batch"), invocations);
+	}
+
+	@Test
+	public void rebakeAfterEviction(EventBus eventBus) {
+		RegisteredListener mainListener = eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL,
+				(mainEvent) -> mainEvent.value++);
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		eventBus.unregisterListener(mainListener); // The baked group is left empty and evicted
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			superEvent.value += 10;
+		});
+
+		var event = new MainEvent();
+		eventBus.fireEvent(event);
+		assertEquals(10, event.value);
+	}
+
+	@Test
+	public void unregisteredPluginEventClassCollected(EventBus eventBus) throws ReflectiveOperationException,
+			InterruptedException {
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {});
+		eventBus.fireEvent(new MainEvent());
+		WeakReference<ClassLoader> pluginClassLoader = useAndDropPluginEvent(eventBus);
+
+		for (int n = 0; n < 100 && pluginClassLoader.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(pluginClassLoader.get(), "Plugin class loader not collected");
+	}
+
+	private static WeakReference<ClassLoader> useAndDropPluginEvent(EventBus eventBus)
+			throws ReflectiveOperationException {
+		ClassLoader pluginClassLoader = new IsolatedClassLoader(PluginEvent.class);
+		Class<? extends Event> pluginEventClass = pluginClassLoader.loadClass(PluginEvent.class.getName())
+				.asSubclass(Event.class);
+		RegisteredListener listener = eventBus.registerListener(pluginEventClass, ListenerPriorities.NORMAL, (event) -> {});
+		eventBus.fireEvent(pluginEventClass.getConstructor().newInstance());
+		eventBus.unregisterListener(listener);
+		return new WeakReference<>(pluginClassLoader);
+	}
+
+	@Test
+	public void rebakeAfterDeadEvent(EventBus eventBus) {
+		eventBus.fireEvent(new MainEvent()); // The dead event bakes an empty group
+		eventBus.registerListener(SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			superEvent.value += 10;
+		});
+
+		var event = new MainEvent();
+		eventBus.fireEvent(event);
+		assertEquals(10, event.value);
+	}
+
+	@Test
+	public void deadPluginEventClassCollected(EventBus eventBus) throws ReflectiveOperationException,
+			InterruptedException {
+		WeakReference<ClassLoader> pluginClassLoader = fireDeadPluginEvent(eventBus);
+
+		for (int n = 0; n < 100 && pluginClassLoader.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(pluginClassLoader.get(), "Plugin class loader not collected");
+	}
+
+	private static WeakReference<ClassLoader> fireDeadPluginEvent(EventBus eventBus)
+			throws ReflectiveOperationException {
+		ClassLoader pluginClassLoader = new IsolatedClassLoader(PluginEvent.class);
+		Class<? extends Event> pluginEventClass = pluginClassLoader.loadClass(PluginEvent.class.getName())
+				.asSubclass(Event.class);
+		assertFalse(eventBus.hasListeners(pluginEventClass));
+		eventBus.fireEvent(pluginEventClass.getConstructor().newInstance());
+		return new WeakReference<>(pluginClassLoader);
+	}
+
+	@Test
+	public void eventBusCollectedDespiteBakedListeners() throws InterruptedException {
+		WeakReference<EventBus> eventBus = useAndDropEventBus();
+
+		for (int n = 0; n < 100 && eventBus.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(eventBus.get(), "Event bus not collected");
+	}
+
+	private WeakReference<EventBus> useAndDropEventBus() {
+		EventBus eventBus = new DefaultEvents();
+		// The listener references the event bus, which its baked group must not retain
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			mainEvent.value = eventBus.getDriver().getRegisteredListenerCount(MainEvent.class);
+		});
+		var event = new MainEvent();
+		eventBus.fireEvent(event);
+		assertEquals(1, event.value);
+		return new WeakReference<>(eventBus);
+	}
+
+	public static class PluginEvent implements Event { }
+
 	public class SuperEvent implements Event {
 
 		int value;
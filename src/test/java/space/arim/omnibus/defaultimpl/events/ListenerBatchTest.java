@@ -0,0 +1,132 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.defaultimpl.events.ListeningMethodsTest.AnnotatedListener;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerBatch;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class ListenerBatchTest {
+
+	@Test
+	public void registerBatchMaintainsOrder(EventBus eventBus) {
+		List<String> invocations = new ArrayList<>();
+		eventBus.registerListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			invocations.add("main-normal");
+		});
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		eventBus.fireEvent(new SuperEvent());
+		invocations.clear();
+
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(SuperEvent.class, ListenerPriorities.HIGH, (superEvent) -> {
+			invocations.add("super-high");
+		});
+		batch.addListener(MainEvent.class, ListenerPriorities.HIGHEST, (mainEvent) -> {
+			invocations.add("main-highest");
+		});
+		batch.addListener(SuperEvent.class, ListenerPriorities.LOW, (superEvent) -> {
+			invocations.add("super-low");
+		});
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("main-normal"), invocations, "Batch not yet registered");
+		invocations.clear();
+
+		batch.register();
+		eventBus.fireEvent(new MainEvent());
+		assertEquals(List.of("super-low", "main-normal", "super-high", "main-highest"), invocations);
+		invocations.clear();
+		eventBus.fireEvent(new SuperEvent());
+		assertEquals(List.of("super-low", "super-high"), invocations);
+	}
+
+	@Test
+	public void unregisterBatch(EventBus eventBus) {
+		ListenerBatch batch = eventBus.createListenerBatch();
+		RegisteredListener mainListener = batch.addListener(MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {
+			mainEvent.value++;
+		});
+		batch.addListener(SuperEvent.class, ListenerPriorities.NORMAL, (superEvent) -> {
+			superEvent.value++;
+		});
+		batch.addListeningMethods(new AnnotatedListener());
+		batch.register();
+		eventBus.fireEvent(new MainEvent()); // The event fire causes some caching
+		assertEquals(3, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+
+		eventBus.unregisterListener(mainListener); // Individually unregistered first
+		batch.unregister();
+		var event = new MainEvent();
+		eventBus.fireEvent(event);
+		assertEquals(0, event.value);
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(MainEvent.class));
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+		batch.unregister(); // No-op
+
+		batch.register();
+		assertEquals(2, eventBus.getDriver().getRegisteredListenerCount(MainEvent.class));
+	}
+
+	@Test
+	public void modifyRegisteredBatch(EventBus eventBus) {
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.register();
+		assertThrows(IllegalStateException.class, batch::register);
+		assertThrows(IllegalStateException.class, () -> batch.addListener(
+				MainEvent.class, ListenerPriorities.NORMAL, (mainEvent) -> {}));
+	}
+
+	@Test
+	public void annotatedListenerAlreadyRegistered(EventBus eventBus) {
+		AnnotatedListener alreadyRegistered = new AnnotatedListener();
+		eventBus.registerListeningMethods(alreadyRegistered);
+
+		AnnotatedListener other = new AnnotatedListener();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListeningMethods(other);
+		batch.addListeningMethods(alreadyRegistered);
+		assertThrows(IllegalStateException.class, () -> batch.addListeningMethods(other));
+		assertThrows(IllegalStateException.class, batch::register);
+		assertEquals(3, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+
+		// The other listener should have been rolled back
+		eventBus.registerListeningMethods(other);
+		assertEquals(6, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+	}
+
+	public class SuperEvent implements Event {
+
+		int value;
+	}
+
+	public class MainEvent extends SuperEvent { }
+}
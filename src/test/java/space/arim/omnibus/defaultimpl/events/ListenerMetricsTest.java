@@ -0,0 +1,101 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.ListenerMetrics;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.RegisteredListener;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
+
+public class ListenerMetricsTest {
+
+	private static ListenerMetrics metricsOf(EventBus eventBus, RegisteredListener listener) {
+		for (ListenerMetrics metrics : eventBus.getDriver().getListenerMetrics()) {
+			if (metrics.getListener() == listener) {
+				return metrics;
+			}
+		}
+		throw new AssertionError("No metrics for " + listener);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = {false, true})
+	public void recordInvocations(boolean compileListeners) {
+		EventBus eventBus = DefaultEvents.builder()
+				.compileListeners(compileListeners).instrumentListeners(true).build();
+		RegisteredListener listener = eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL,
+				(te) -> {
+					if (te.someValue < 0) {
+						throw new IllegalStateException("Expected exception");
+					}
+				});
+		for (int n = -1; n < 3; n++) {
+			eventBus.fireEvent(new TestEventWithInteger(n));
+		}
+		ListenerMetrics metrics = metricsOf(eventBus, listener);
+		assertSame(TestEventWithInteger.class, metrics.getEventClass());
+		assertEquals(ListenerPriorities.NORMAL, metrics.getPriority());
+		assertEquals(4L, metrics.getInvocationCount());
+		assertEquals(1L, metrics.getExceptionCount());
+		assertTrue(metrics.getMaxNanos() <= metrics.getTotalNanos());
+	}
+
+	@Test
+	public void asyncAndBatchedListeners() {
+		EventBus eventBus = DefaultEvents.builder().instrumentListeners(true).build();
+		RegisteredListener asyncListener = eventBus.registerListener(AsyncTestEventWithInteger.class,
+				ListenerPriorities.NORMAL, (te, controller) -> controller.continueFire());
+		RegisteredListener syncListener = eventBus.registerListener(TestEventWithInteger.class,
+				ListenerPriorities.NORMAL, (te) -> {});
+		fireAndWait(eventBus, new AsyncTestEventWithInteger(0));
+		eventBus.fireEvents(List.of(new TestEventWithInteger(1), new TestEventWithInteger(2)));
+
+		assertEquals(1L, metricsOf(eventBus, asyncListener).getInvocationCount());
+		assertEquals(2L, metricsOf(eventBus, syncListener).getInvocationCount());
+	}
+
+	@Test
+	public void unregisteredListenersOmitted() {
+		EventBus eventBus = DefaultEvents.builder().instrumentListeners(true).build();
+		RegisteredListener listener = eventBus.registerListener(TestEventWithInteger.class,
+				ListenerPriorities.NORMAL, (te) -> {});
+		assertEquals(1, eventBus.getDriver().getListenerMetrics().size());
+		eventBus.unregisterListener(listener);
+		assertEquals(List.of(), eventBus.getDriver().getListenerMetrics());
+	}
+
+	@Test
+	public void notInstrumented() {
+		EventBus eventBus = new DefaultEvents();
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL, (te) -> {});
+		eventBus.fireEvent(new TestEventWithInteger(1));
+		assertEquals(List.of(), eventBus.getDriver().getListenerMetrics());
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import space.arim.omnibus.defaultimpl.events.ListeningMethodsTest.AnnotatedListener;
+import space.arim.omnibus.defaultimpl.events.ListeningMethodsTest.AsyncAnnotatedListener;
+import space.arim.omnibus.events.AsynchronousEventConsumer;
+import space.arim.omnibus.events.Event;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.EventFireController;
+import space.arim.omnibus.events.ListeningMethod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ListeningMethodMetafactoryTest {
+
+	private static MethodHandle spinFactory(Method method) throws IllegalAccessException {
+		MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+		MethodHandle consumerFactory = new ListeningMethodMetafactory(method, methodHandle).spinConsumerFactory();
+		assertNotNull(consumerFactory, "Consumer factory should be available");
+		return consumerFactory;
+	}
+
+	@Test
+	public void spinEventConsumer() throws Throwable {
+		Method method = AnnotatedListener.class.getMethod("plusOne", TestEventWithInteger.class);
+		Object consumer = spinFactory(method).invoke(new AnnotatedListener());
+		assertTrue(consumer instanceof EventConsumer);
+		assertFalse(consumer instanceof InvokingEventConsumer);
+
+		TestEventWithInteger event = new TestEventWithInteger(1);
+		@SuppressWarnings("unchecked")
+		Consumer<Object> bridge = (Consumer<Object>) consumer;
+		bridge.accept(event);
+		assertEquals(2, event.someValue);
+	}
+
+	@Test
+	public void spinAsynchronousEventConsumer() throws Throwable {
+		Method method = AsyncAnnotatedListener.class.getMethod("minus3",
+				AsyncTestEventWithInteger.class, EventFireController.class);
+		try (AsyncAnnotatedListener listener = new AsyncAnnotatedListener()) {
+			@SuppressWarnings("unchecked")
+			AsynchronousEventConsumer<AsyncTestEventWithInteger> consumer =
+					(AsynchronousEventConsumer<AsyncTestEventWithInteger>) spinFactory(method).invoke(listener);
+			AsyncTestEventWithInteger event = new AsyncTestEventWithInteger(5);
+			consumer.acceptAndContinue(event, () -> {});
+			assertEquals(2, event.someValue);
+		}
+	}
+
+	@Test
+	public void childClassLoaderListenerUnavailable() throws ReflectiveOperationException {
+		// Since Java 14, LambdaMetafactory requires module access, which privateLookupIn drops across modules
+		assumeTrue(Runtime.version().feature() >= 14);
+		Class<?> listenerClass = new IsolatedClassLoader(PluginListener.class).loadClass(PluginListener.class.getName());
+		Method method = listenerClass.getMethod("onEvent", CountingEvent.class);
+		MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+		assertNull(new ListeningMethodMetafactory(method, methodHandle).spinConsumerFactory());
+	}
+
+	@Test
+	public void childClassLoaderListenerFallsBack() throws ReflectiveOperationException {
+		Class<?> listenerClass = new IsolatedClassLoader(PluginListener.class).loadClass(PluginListener.class.getName());
+		EventBus eventBus = new DefaultEvents();
+		eventBus.registerListeningMethods(listenerClass.getConstructor().newInstance());
+
+		CountingEvent event = new CountingEvent();
+		eventBus.fireEvent(event);
+		assertEquals(1, event.count());
+	}
+
+	public static class CountingEvent implements Event {
+
+		private int count;
+
+		public void increment() {
+			count++;
+		}
+
+		public int count() {
+			return count;
+		}
+	}
+
+	public static class PluginListener {
+
+		@ListeningMethod
+		public void onEvent(CountingEvent event) {
+			event.increment();
+		}
+	}
+
+}
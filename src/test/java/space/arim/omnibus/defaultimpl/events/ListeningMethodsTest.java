@@ -71,6 +71,20 @@ public class ListeningMethodsTest {
 		}
 	}
 
+	@Test
+	public void multipleInstancesOfSameClass(EventBus eventBus) {
+		AnnotatedListener first = new AnnotatedListener();
+		AnnotatedListener second = new AnnotatedListener();
+		eventBus.registerListeningMethods(first);
+		eventBus.registerListeningMethods(second);
+		eventBus.unregisterListeningMethods(first);
+
+		int startValue = ThreadLocalRandom.current().nextInt();
+		TestEventWithInteger te = new TestEventWithInteger(startValue);
+		eventBus.fireEvent(te);
+		assertEquals(((startValue + 1) * 10) - 3, te.someValue, "Only the second instance should remain");
+	}
+
 	@Test
 	public void duplicateRegister(EventBus eventBus) {
 		AnnotatedListener listener = new AnnotatedListener();
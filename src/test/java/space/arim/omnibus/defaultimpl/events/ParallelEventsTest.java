@@ -0,0 +1,123 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventConsumer;
+import space.arim.omnibus.events.ParallelAsyncEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class ParallelEventsTest {
+
+	@Test
+	public void listenersInTierRunConcurrently(EventBus eventBus) {
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		EventConsumer<ParallelTestEvent> awaitOther = (event) -> {
+			bothStarted.countDown();
+			try {
+				if (!bothStarted.await(2L, TimeUnit.SECONDS)) {
+					event.concurrent = false;
+				}
+			} catch (InterruptedException ex) {
+				throw new RuntimeException(ex);
+			}
+			event.counter.incrementAndGet();
+		};
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 0, awaitOther);
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 0, awaitOther);
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 5, (event) -> {
+			event.counterInNextTier = event.counter.get();
+		});
+
+		ParallelTestEvent event = new ParallelTestEvent();
+		eventBus.fireAsyncEvent(event).orTimeout(5L, TimeUnit.SECONDS).join();
+		assertTrue(event.concurrent, "Listeners in the same tier should run concurrently");
+		assertEquals(2, event.counterInNextTier, "Next tier should start once the previous tier completes");
+	}
+
+	@Test
+	public void tiersAwaitAsynchronousListeners(EventBus eventBus) {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		List<String> invocations = new CopyOnWriteArrayList<>();
+		eventBus.registerListener(ParallelTestEvent.class, (byte) -5, (event, controller) -> {
+			executor.execute(() -> {
+				invocations.add("async");
+				controller.continueFire();
+			});
+		});
+		eventBus.registerListener(ParallelTestEvent.class, (byte) -5, executor, (event) -> {
+			invocations.add("executor");
+		});
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 0, (event) -> {
+			invocations.add("next-tier");
+		});
+
+		CompletableFuture<ParallelTestEvent> future = eventBus.fireAsyncEvent(new ParallelTestEvent());
+		future.orTimeout(2L, TimeUnit.SECONDS).join();
+		executor.shutdown();
+		assertEquals(3, invocations.size());
+		assertEquals("next-tier", invocations.get(2));
+	}
+
+	@Test
+	public void continueTwice(EventBus eventBus) {
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 0, (event, controller) -> {
+			controller.continueFire();
+			failures.add(assertThrows(IllegalStateException.class, controller::continueFire));
+		});
+		eventBus.registerListener(ParallelTestEvent.class, (byte) 5, (event) -> {
+			event.counter.incrementAndGet();
+		});
+		ParallelTestEvent event = new ParallelTestEvent();
+		eventBus.fireAsyncEvent(event).orTimeout(2L, TimeUnit.SECONDS).join();
+		assertEquals(1, event.counter.get());
+		assertEquals(1, failures.size());
+	}
+
+	@Test
+	public void noListeners(EventBus eventBus) {
+		ParallelTestEvent event = new ParallelTestEvent();
+		assertTrue(eventBus.fireAsyncEvent(event).isDone());
+	}
+
+	public static class ParallelTestEvent implements ParallelAsyncEvent {
+
+		final AtomicInteger counter = new AtomicInteger();
+		volatile boolean concurrent = true;
+		volatile int counterInNextTier;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SortedListenersMergeTest {
+
+	private static Listener<?>[] randomSortedListeners(int length) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Listener<?>[] listeners = new Listener<?>[length];
+		for (int n = 0; n < length; n++) {
+			listeners[n] = new SynchronousListener<>(TestEventWithInteger.class, (byte) random.nextInt(), false, (e) -> {});
+		}
+		Arrays.sort(listeners);
+		return listeners;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {2, 3, 4, 7, 16})
+	public void mergeMany(int sourceCount) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Listener<?>[][] sources = new Listener<?>[sourceCount + 1][];
+		int totalLength = 0;
+		for (int n = 0; n < sourceCount; n++) {
+			sources[n] = randomSortedListeners(random.nextInt(1, 40));
+			totalLength += sources[n].length;
+		}
+		Listener<?>[] expected = new Listener<?>[totalLength];
+		int position = 0;
+		for (int n = 0; n < sourceCount; n++) {
+			System.arraycopy(sources[n], 0, expected, position, sources[n].length);
+			position += sources[n].length;
+		}
+		Arrays.sort(expected);
+		assertArrayEquals(expected, SortedListenersMerge.merge(sources, sourceCount, totalLength));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1})
+	public void mergeTrivial(int sourceCount) {
+		Listener<?>[] source = randomSortedListeners(5);
+		Listener<?>[] merged = SortedListenersMerge.merge(
+				new Listener<?>[][] {source}, sourceCount, source.length * sourceCount);
+		if (sourceCount == 0) {
+			assertArrayEquals(new Listener<?>[0], merged);
+		} else {
+			assertSame(source, merged);
+		}
+	}
+}
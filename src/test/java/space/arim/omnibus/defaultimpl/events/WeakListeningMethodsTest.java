@@ -0,0 +1,111 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.defaultimpl.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import space.arim.omnibus.events.EventBus;
+import space.arim.omnibus.events.EventFireController;
+import space.arim.omnibus.events.ListenerPriorities;
+import space.arim.omnibus.events.ListeningMethod;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static space.arim.omnibus.defaultimpl.events.DefaultEventsTesting.fireAndWait;
+
+@ExtendWith(DefaultEventsExtension.class)
+public class WeakListeningMethodsTest {
+
+	@Test
+	public void calledWhileReachable(EventBus eventBus) {
+		var listener = new WeakListener();
+		eventBus.registerWeakListeningMethods(listener);
+		var event = new TestEventWithInteger(0);
+		eventBus.fireEvent(event);
+		assertEquals(1, event.someValue);
+
+		eventBus.unregisterListeningMethods(listener);
+		assertEquals(0, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+	}
+
+	@Test
+	public void alreadyRegistered(EventBus eventBus) {
+		var listener = new WeakListener();
+		eventBus.registerListeningMethods(listener);
+		assertThrows(IllegalStateException.class, () -> eventBus.registerWeakListeningMethods(listener));
+	}
+
+	@Test
+	public void collectedListenerPurged(EventBus eventBus) throws InterruptedException {
+		eventBus.registerListener(TestEventWithInteger.class, ListenerPriorities.NORMAL, (te) -> {});
+		awaitCollection(registerWeakListener(eventBus));
+
+		long deadline = System.nanoTime() + 2_000_000_000L;
+		while (eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class) != 1
+				&& System.nanoTime() < deadline) {
+			// Firing finds the listener collected, and purges it once enqueued
+			var event = new TestEventWithInteger(0);
+			eventBus.fireEvent(event);
+			assertEquals(0, event.someValue);
+			Thread.sleep(10L);
+		}
+		assertEquals(1, eventBus.getDriver().getRegisteredListenerCount(TestEventWithInteger.class));
+	}
+
+	@Test
+	public void collectedAsyncListenerContinues(EventBus eventBus) throws InterruptedException {
+		awaitCollection(registerWeakListener(eventBus));
+		eventBus.registerListener(AsyncTestEventWithInteger.class, ListenerPriorities.HIGHEST, (te) -> te.someValue += 10);
+		var event = new AsyncTestEventWithInteger(0);
+		fireAndWait(eventBus, event);
+		assertEquals(10, event.someValue);
+	}
+
+	private static WeakReference<?> registerWeakListener(EventBus eventBus) {
+		var listener = new WeakListener();
+		eventBus.registerWeakListeningMethods(listener);
+		return new WeakReference<>(listener);
+	}
+
+	private static void awaitCollection(WeakReference<?> reference) throws InterruptedException {
+		for (int n = 0; n < 100 && reference.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(reference.get(), "Listener not collected");
+	}
+
+	public static class WeakListener {
+
+		@ListeningMethod
+		public void onEvent(TestEventWithInteger event) {
+			event.someValue++;
+		}
+
+		@ListeningMethod
+		public void onAsyncEvent(AsyncTestEventWithInteger event, EventFireController controller) {
+			event.someValue++;
+			controller.continueFire();
+		}
+	}
+}
@@ -29,24 +29,34 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import space.arim.omnibus.defaultimpl.events.DefaultEvents;
+import space.arim.omnibus.defaultimpl.events.IsolatedClassLoader;
 import space.arim.omnibus.events.AsyncEvent;
 import space.arim.omnibus.events.EventBus;
 import space.arim.omnibus.registry.DuplicateRegistrationException;
+import space.arim.omnibus.registry.ProviderHandle;
 import space.arim.omnibus.registry.Registration;
+import space.arim.omnibus.registry.RegistrationBatch;
 import space.arim.omnibus.registry.Registry;
 import space.arim.omnibus.registry.RegistryPriorities;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 public class DefaultRegistryTest {
@@ -237,4 +247,231 @@ public class DefaultRegistryTest {
 				new ServiceChangeEventImpl<>(TestService.class, regis3, null));
 	}
 
+	@Test
+	public void deliverEventsAsynchronously() {
+		List<Runnable> tasks = new ArrayList<>();
+		registry = new DefaultRegistry(eventBus, tasks::add);
+		TestService provider = new TestServiceImpl();
+		Registration<TestService> registration = register(randomPriority(), provider, "impl");
+		CompletableFuture<Void> registered = registry.whenEventsDelivered();
+		assertTopRegistration(registration);
+		assertEquals(Optional.empty(), unregister(registration));
+		CompletableFuture<Void> unregistered = registry.whenEventsDelivered();
+		assertNoRegistrations();
+
+		verifyNoInteractions(eventBus);
+		assertFalse(registered.isDone());
+		assertEquals(1, tasks.size(), "Only one drain should be pending at a time");
+		tasks.remove(0).run();
+		assertTrue(registered.isDone());
+		assertTrue(unregistered.isDone());
+		assertFiredEvents(
+				new RegistrationAddEventImpl<>(TestService.class, registration),
+				new ServiceChangeEventImpl<>(TestService.class, null, registration),
+				new RegistrationRemoveEventImpl<>(TestService.class, registration),
+				new ServiceChangeEventImpl<>(TestService.class, registration, null));
+	}
+
+	@Test
+	public void eventsDeliveredSynchronously() {
+		TestService provider = new TestServiceImpl();
+		Registration<TestService> registration = register(randomPriority(), provider, "impl");
+		assertTrue(registry.whenEventsDelivered().isDone());
+		assertFiredEvents(
+				new RegistrationAddEventImpl<>(TestService.class, registration),
+				new ServiceChangeEventImpl<>(TestService.class, null, registration));
+	}
+
+	@Test
+	public void providerHandle() {
+		ProviderHandle<TestService> handle = registry.getProviderHandle(TestService.class);
+		assertSame(handle, registry.getProviderHandle(TestService.class));
+		assertEquals(TestService.class, handle.getService());
+		assertNull(handle.get());
+
+		TestService low = new TestServiceImpl();
+		Registration<TestService> lowRegistration = register(RegistryPriorities.LOWER, low, "low");
+		assertSame(low, handle.get());
+		TestService high = new TestServiceImpl();
+		Registration<TestService> highRegistration = register(RegistryPriorities.HIGHER, high, "high");
+		assertSame(high, handle.get());
+		TestService lowest = new TestServiceImpl();
+		register(RegistryPriorities.LOWEST, lowest, "lowest");
+		assertSame(high, handle.get());
+
+		unregister(highRegistration);
+		assertSame(low, handle.get());
+		unregister(lowRegistration);
+		assertSame(lowest, handle.get());
+	}
+
+	@Test
+	public void providerHandleForExistingRegistration() {
+		TestService provider = new TestServiceImpl();
+		Registration<TestService> registration = register(randomPriority(), provider, "impl");
+		ProviderHandle<TestService> handle = registry.getProviderHandle(TestService.class);
+		assertSame(provider, handle.get());
+		unregister(registration);
+		assertNull(handle.get());
+	}
+
+	@Test
+	public void unreferencedProviderHandleCollected() throws ClassNotFoundException, InterruptedException {
+		WeakReference<ClassLoader> pluginClassLoader = getAndDropPluginProviderHandle();
+		for (int n = 0; n < 100 && pluginClassLoader.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+			// Purges collected handles
+			unregister(new Registration<>(RegistryPriorities.NORMAL, new TestServiceImpl(), "absent"));
+		}
+		assertNull(pluginClassLoader.get(), "Plugin class loader not collected");
+	}
+
+	private WeakReference<ClassLoader> getAndDropPluginProviderHandle() throws ClassNotFoundException {
+		ClassLoader pluginClassLoader = new IsolatedClassLoader(PluginService.class);
+		Class<?> pluginServiceClass = pluginClassLoader.loadClass(PluginService.class.getName());
+		assertNull(registry.getProviderHandle(pluginServiceClass).get());
+		return new WeakReference<>(pluginClassLoader);
+	}
+
+	@Test
+	public void registrationBatch() {
+		RegistrationBatch batch = registry.createRegistrationBatch();
+		Registration<TestService> low = batch.addRegistration(
+				TestService.class, RegistryPriorities.LOWER, new TestServiceImpl(), "low");
+		Registration<TestService> high = batch.addRegistration(
+				TestService.class, RegistryPriorities.HIGHER, new TestServiceImpl(), "high");
+		Registration<TestService> normal = batch.addRegistration(
+				TestService.class, RegistryPriorities.NORMAL, new TestServiceImpl(), "normal");
+		assertNoRegistrations();
+		batch.apply();
+		assertTopRegistration(high);
+		assertRegistrations(List.of(low, normal, high));
+		assertThrows(IllegalStateException.class, batch::apply);
+
+		RegistrationBatch secondBatch = registry.createRegistrationBatch();
+		secondBatch.addUnregistration(TestService.class, high);
+		secondBatch.addUnregistration(TestService.class, normal);
+		Registration<TestService> highest = secondBatch.addRegistration(
+				TestService.class, RegistryPriorities.HIGHEST, new TestServiceImpl(), "highest");
+		secondBatch.apply();
+		assertTopRegistration(highest);
+		assertRegistrations(List.of(low, highest));
+
+		assertFiredEvents(
+				new RegistrationAddEventImpl<>(TestService.class, low),
+				new RegistrationAddEventImpl<>(TestService.class, high),
+				new RegistrationAddEventImpl<>(TestService.class, normal),
+				new ServiceChangeEventImpl<>(TestService.class, null, high),
+				new RegistrationAddEventImpl<>(TestService.class, highest),
+				new RegistrationRemoveEventImpl<>(TestService.class, high),
+				new RegistrationRemoveEventImpl<>(TestService.class, normal),
+				new ServiceChangeEventImpl<>(TestService.class, high, highest));
+	}
+
+	@Test
+	public void registrationBatchWithoutNetChange() {
+		Registration<TestService> existing = register(RegistryPriorities.HIGHEST, new TestServiceImpl(), "existing");
+		RegistrationBatch batch = registry.createRegistrationBatch();
+		Registration<TestService> added = batch.addRegistration(
+				TestService.class, RegistryPriorities.LOWEST, new TestServiceImpl(), "added");
+		batch.apply();
+		assertRegistrations(List.of(added, existing));
+
+		assertFiredEvents(
+				new RegistrationAddEventImpl<>(TestService.class, existing),
+				new ServiceChangeEventImpl<>(TestService.class, null, existing),
+				new RegistrationAddEventImpl<>(TestService.class, added));
+	}
+
+	@Test
+	public void registrationBatchDuplicate() {
+		TestService provider = new TestServiceImpl();
+		Registration<TestService> existing = register(randomPriority(), provider, "existing");
+		RegistrationBatch batch = registry.createRegistrationBatch();
+		batch.addRegistration(TestService.class, randomPriority(), new TestServiceImpl(), "other");
+		batch.addRegistration(TestService.class, randomPriority(), provider, "duplicate");
+		assertThrows(DuplicateRegistrationException.class, batch::apply);
+		assertTopRegistration(existing);
+		assertRegistrations(List.of(existing));
+	}
+
+	@Test
+	public void registrationBatchDuplicateAppliesNothing() {
+		TestService provider = new TestServiceImpl();
+		register(randomPriority(), provider, "existing");
+		clearInvocations(eventBus);
+		RegistrationBatch batch = registry.createRegistrationBatch();
+		batch.addRegistration(SubTestService.class, randomPriority(), new SubTestServiceImpl(), "other service");
+		batch.addRegistration(TestService.class, randomPriority(), provider, "duplicate");
+		assertThrows(DuplicateRegistrationException.class, batch::apply);
+		assertFalse(registry.isProvidedFor(SubTestService.class));
+		verifyNoInteractions(eventBus);
+	}
+
+	public interface SubTestService extends TestService { }
+
+	public static class SubTestServiceImpl extends TestServiceImpl implements SubTestService { }
+
+	@Test
+	public void assignableRegistrations() {
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(TestService.class));
+
+		Registration<TestService> base = register(RegistryPriorities.NORMAL, new TestServiceImpl(), "base");
+		Registration<SubTestService> sub = registry.register(
+				SubTestService.class, RegistryPriorities.HIGHER, new SubTestServiceImpl(), "sub");
+		assertEquals(List.of(base, sub), registry.getAllAssignableRegistrations(TestService.class));
+		assertEquals(List.of(sub), registry.getAllAssignableRegistrations(SubTestService.class));
+		assertEquals(List.of(base, sub), registry.getAllAssignableRegistrations(Object.class));
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(Runnable.class));
+
+		// Cached results are invalidated by changes to subtypes
+		Registration<SubTestService> lowSub = registry.register(
+				SubTestService.class, RegistryPriorities.LOWER, new SubTestServiceImpl(), "low-sub");
+		assertEquals(List.of(lowSub, base, sub), registry.getAllAssignableRegistrations(TestService.class));
+		assertEquals(List.of(lowSub, base, sub), registry.getAllAssignableRegistrations(Object.class));
+		registry.unregister(SubTestService.class, sub);
+		assertEquals(List.of(lowSub, base), registry.getAllAssignableRegistrations(TestService.class));
+		assertEquals(List.of(lowSub), registry.getAllAssignableRegistrations(SubTestService.class));
+
+		RegistrationBatch batch = registry.createRegistrationBatch();
+		batch.addUnregistration(SubTestService.class, lowSub);
+		batch.apply();
+		assertEquals(List.of(base), registry.getAllAssignableRegistrations(TestService.class));
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(SubTestService.class));
+	}
+
+	@Test
+	public void unregisteredPluginServiceCollected() throws ReflectiveOperationException, InterruptedException {
+		// Mocks retain the events passed to them, so use a real event bus
+		Registry registry = new DefaultRegistry(new DefaultEvents());
+		WeakReference<ClassLoader> pluginClassLoader = useAndDropPluginService(registry);
+		for (int n = 0; n < 100 && pluginClassLoader.get() != null; n++) {
+			System.gc();
+			Thread.sleep(10L);
+		}
+		assertNull(pluginClassLoader.get(), "Plugin class loader not collected");
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(PluginService.class));
+	}
+
+	private static WeakReference<ClassLoader> useAndDropPluginService(Registry registry) throws ReflectiveOperationException {
+		ClassLoader pluginClassLoader = new IsolatedClassLoader(PluginService.class, PluginServiceImpl.class);
+		Class<?> pluginServiceClass = pluginClassLoader.loadClass(PluginService.class.getName());
+		Object provider = pluginClassLoader.loadClass(PluginServiceImpl.class.getName()).getConstructor().newInstance();
+		registerAndUnregister(registry, pluginServiceClass, provider);
+		return new WeakReference<>(pluginClassLoader);
+	}
+
+	private static <T> void registerAndUnregister(Registry registry, Class<T> service, Object provider) {
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(service));
+		Registration<T> registration = registry.register(service, RegistryPriorities.NORMAL, service.cast(provider), "plugin");
+		assertEquals(List.of(registration), registry.getAllAssignableRegistrations(service));
+		registry.unregister(service, registration);
+		assertEquals(List.of(), registry.getAllAssignableRegistrations(service));
+	}
+
+	public interface PluginService { }
+
+	public static class PluginServiceImpl implements PluginService { }
+
 }
@@ -0,0 +1,262 @@
+/*
+ * Omnibus
+ * Copyright © 2021 Anand Beh
+ *
+ * Omnibus is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Omnibus is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Omnibus. If not, see <https://www.gnu.org/licenses/>
+ * and navigate to version 3 of the GNU Lesser General Public License.
+ */
+
+package space.arim.omnibus.events;
+
+import org.junit.jupiter.api.Test;
+import space.arim.omnibus.defaultimpl.events.DefaultEvents;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventBusDefaultsTest {
+
+	private final EventBus eventBus = new MinimalEventBus(new DefaultEvents());
+
+	@Test
+	public void fireSuppliedEvent() {
+		assertFalse(eventBus.hasListeners(CountingEvent.class));
+		eventBus.fireEvent(CountingEvent.class, () -> {
+			throw new AssertionError("Event should not be constructed");
+		});
+		eventBus.registerListener(CountingEvent.class, ListenerPriorities.NORMAL, CountingEvent::increment);
+		assertTrue(eventBus.hasListeners(CountingEvent.class));
+		CountingEvent event = new CountingEvent();
+		eventBus.fireEvent(CountingEvent.class, () -> event);
+		assertEquals(1, event.count());
+	}
+
+	@Test
+	public void fireEvents() {
+		eventBus.registerListener(CountingEvent.class, ListenerPriorities.NORMAL, CountingEvent::increment);
+		CountingEvent event1 = new CountingEvent();
+		CountingEvent event2 = new CountingEvent();
+		eventBus.fireEvents(List.of(event1, event2, event1));
+		assertEquals(2, event1.count());
+		assertEquals(1, event2.count());
+	}
+
+	@Test
+	public void fireEventsRejectsAsyncEvents() {
+		eventBus.registerListener(CountingEvent.class, ListenerPriorities.NORMAL, CountingEvent::increment);
+		CountingEvent event = new CountingEvent();
+		assertThrows(IllegalArgumentException.class, () -> eventBus.fireEvents(List.of(event, new CountingAsyncEvent())));
+		assertEquals(0, event.count());
+	}
+
+	@Test
+	public void ignoreCancelled() {
+		eventBus.registerListener(CancellableCountingEvent.class, ListenerPriorities.LOW, (event) -> event.cancel());
+		eventBus.registerListener(CancellableCountingEvent.class, ListenerPriorities.NORMAL, true,
+				CountingEvent::increment);
+		eventBus.registerListener(CancellableCountingEvent.class, ListenerPriorities.HIGH, false,
+				CountingEvent::increment);
+		CancellableCountingEvent event = new CancellableCountingEvent();
+		eventBus.fireEvent(event);
+		assertEquals(1, event.count());
+	}
+
+	@Test
+	public void filteredListener() {
+		eventBus.registerListener(CountingEvent.class, ListenerPriorities.NORMAL,
+				(eventClass) -> eventClass != CancellableCountingEvent.class, (event) -> event.count() < 2,
+				CountingEvent::increment);
+		CountingEvent event = new CountingEvent();
+		for (int n = 0; n < 3; n++) {
+			eventBus.fireEvent(event);
+		}
+		assertEquals(2, event.count());
+		CancellableCountingEvent rejectedEvent = new CancellableCountingEvent();
+		eventBus.fireEvent(rejectedEvent);
+		assertEquals(0, rejectedEvent.count());
+	}
+
+	@Test
+	public void executorListener() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			eventBus.registerListener(CountingAsyncEvent.class, ListenerPriorities.NORMAL, executor,
+					CountingAsyncEvent::increment);
+			CountingAsyncEvent event = eventBus.fireAsyncEvent(new CountingAsyncEvent())
+					.orTimeout(5L, TimeUnit.SECONDS).join();
+			assertEquals(1, event.count());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void listenerBatch() {
+		CountingListener annotatedListener = new CountingListener();
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(CountingEvent.class, ListenerPriorities.NORMAL, CountingEvent::increment);
+		batch.addListener(CancellableCountingEvent.class, ListenerPriorities.NORMAL, true, CountingEvent::increment);
+		batch.addListeningMethods(annotatedListener);
+		assertFalse(eventBus.hasListeners(CountingEvent.class));
+
+		batch.register();
+		assertThrows(IllegalStateException.class, () -> batch.addListeningMethods(new CountingListener()));
+		CountingEvent event = new CountingEvent();
+		eventBus.fireEvent(event);
+		assertEquals(2, event.count());
+		CancellableCountingEvent cancelledEvent = new CancellableCountingEvent();
+		cancelledEvent.cancel();
+		eventBus.fireEvent(cancelledEvent);
+		assertEquals(2, cancelledEvent.count());
+
+		batch.unregister();
+		assertFalse(eventBus.hasListeners(CountingEvent.class));
+		batch.register();
+		eventBus.fireEvent(event);
+		assertEquals(4, event.count());
+	}
+
+	@Test
+	public void listenerBatchAlreadyRegisteredRegistersNothing() {
+		CountingListener annotatedListener = new CountingListener();
+		eventBus.registerListeningMethods(annotatedListener);
+		ListenerBatch batch = eventBus.createListenerBatch();
+		batch.addListener(CountingEvent.class, ListenerPriorities.NORMAL, CountingEvent::increment);
+		batch.addListeningMethods(new CountingListener());
+		batch.addListeningMethods(annotatedListener);
+		assertThrows(IllegalStateException.class, () -> batch.addListeningMethods(annotatedListener));
+
+		assertThrows(IllegalStateException.class, batch::register);
+		CountingEvent event = new CountingEvent();
+		eventBus.fireEvent(event);
+		assertEquals(1, event.count(), "Only the already registered listener should be called");
+	}
+
+	public static class CountingListener {
+
+		@ListeningMethod
+		public void onEvent(CountingEvent event) {
+			event.increment();
+		}
+	}
+
+	public static class CountingEvent implements Event {
+
+		private int count;
+
+		void increment() {
+			count++;
+		}
+
+		int count() {
+			return count;
+		}
+	}
+
+	public static class CancellableCountingEvent extends CountingEvent implements Cancellable {
+
+		private boolean cancelled;
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	public static class CountingAsyncEvent implements AsyncEvent {
+
+		private volatile int count;
+
+		void increment() {
+			count++;
+		}
+
+		int count() {
+			return count;
+		}
+	}
+
+	/**
+	 * Event bus implementing only the abstract methods, by delegation
+	 *
+	 */
+	private static final class MinimalEventBus implements EventBus {
+
+		private final EventBus delegate;
+
+		MinimalEventBus(EventBus delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public <E extends Event> void fireEvent(E event) {
+			delegate.fireEvent(event);
+		}
+
+		@Override
+		public <E extends AsyncEvent> CompletableFuture<E> fireAsyncEvent(E event) {
+			return delegate.fireAsyncEvent(event);
+		}
+
+		@Override
+		public <E extends AsyncEvent> void fireAsyncEventWithoutFuture(E event) {
+			delegate.fireAsyncEventWithoutFuture(event);
+		}
+
+		@Override
+		public <E extends Event> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+				EventConsumer<? super E> eventConsumer) {
+			return delegate.registerListener(eventClass, priority, eventConsumer);
+		}
+
+		@Override
+		public <E extends AsyncEvent> RegisteredListener registerListener(Class<E> eventClass, byte priority,
+				AsynchronousEventConsumer<? super E> asyncEventConsumer) {
+			return delegate.registerListener(eventClass, priority, asyncEventConsumer);
+		}
+
+		@Override
+		public void registerListeningMethods(Object annotatedListener) {
+			delegate.registerListeningMethods(annotatedListener);
+		}
+
+		@Override
+		public void unregisterListener(RegisteredListener listener) {
+			delegate.unregisterListener(listener);
+		}
+
+		@Override
+		public void unregisterListeningMethods(Object annotatedListener) {
+			delegate.unregisterListeningMethods(annotatedListener);
+		}
+
+		@Override
+		public EventBusDriver getDriver() {
+			return delegate.getDriver();
+		}
+	}
+}